@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.benchmarks.sample.EventController;
+import de.escalon.hypermedia.spring.Affordance;
+import de.escalon.hypermedia.spring.LinkHandle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkHandle;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkTo;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.methodOn;
+
+/**
+ * Builds affordances from controller method invocations, as done once per link in every response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AffordanceBuilderBenchmark {
+
+    private static final LinkHandle GET_EVENT = linkHandle(EventController.class, "getEvent", Integer.class);
+
+    private int eventId;
+
+    @Setup
+    public void setUp() {
+        Fixtures.bindRequest();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.unbindRequest();
+    }
+
+    @Benchmark
+    public Affordance linkToPathVariable() {
+        return linkTo(methodOn(EventController.class).getEvent(++eventId)).withSelfRel();
+    }
+
+    @Benchmark
+    public Affordance linkHandleToPathVariable() {
+        return GET_EVENT.linkTo(++eventId).withSelfRel();
+    }
+
+    @Benchmark
+    public Affordance linkToRequestParams() {
+        return linkTo(methodOn(EventController.class).findEvents("Tour", null)).withRel("search");
+    }
+
+    @Benchmark
+    public Affordance linkToRequestBody() {
+        return linkTo(methodOn(EventController.class).updateEvent(++eventId, null)).withRel("update");
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.OutputStream;
+
+/**
+ * Output message which only counts the bytes written to its body, so that benchmarks measure serialization rather
+ * than buffering. A message can be reused after {@link #reset()}.
+ */
+public class DiscardingOutputMessage implements HttpOutputMessage {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private long count;
+
+    private final OutputStream body = new OutputStream() {
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    };
+
+    @Override
+    public OutputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets number of bytes written since the last reset.
+     *
+     * @return byte count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Clears headers and byte count.
+     */
+    public void reset() {
+        headers.clear();
+        count = 0;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.benchmarks.sample.*;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.escalon.hypermedia.spring.AffordanceBuilder.linkTo;
+import static de.escalon.hypermedia.spring.AffordanceBuilder.methodOn;
+
+/**
+ * Creates the object graphs written by the benchmarks. Links are built by AffordanceBuilder, which requires a current
+ * request, see {@link #bindRequest()}.
+ */
+public final class Fixtures {
+
+    private static final String[] LOCATIONS = {"Wiesbaden", "Heilbronn", "Berlin", "Hamburg"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * Binds a mock request for http://localhost/ to the current thread.
+     */
+    public static void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    /**
+     * Removes the request bound by {@link #bindRequest()}.
+     */
+    public static void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * Creates an event resource with a self link and an affordance to update the event.
+     *
+     * @param id       of event
+     * @param complete false to leave out links and enum values
+     * @return resource
+     */
+    public static Resource<Event> event(int id, boolean complete) {
+        Event event = new Event(id, "Performer " + id, new CreativeWork("Tour " + id),
+                LOCATIONS[id % LOCATIONS.length], complete ? EventStatusType.EVENT_SCHEDULED : null);
+        Resource<Event> resource = new Resource<Event>(event);
+        if (complete) {
+            resource.add(linkTo(methodOn(EventController.class).getEvent(id)).withSelfRel());
+            resource.add(linkTo(methodOn(EventController.class).updateEvent(id, null)).withRel("update"));
+        }
+        return resource;
+    }
+
+    /**
+     * Creates a page of event resources with a search affordance.
+     *
+     * @param size     of page
+     * @param complete false to leave out links and enum values
+     * @return resources
+     */
+    public static Resources<Resource<Event>> events(int size, boolean complete) {
+        List<Resource<Event>> content = new ArrayList<Resource<Event>>(size);
+        for (int i = 0; i < size; i++) {
+            content.add(event(i, complete));
+        }
+        List<Link> links = new ArrayList<Link>(1);
+        if (complete) {
+            links.add(linkTo(methodOn(EventController.class).findEvents(null, null)).withRel("search"));
+        }
+        return new Resources<Resource<Event>>(content, links);
+    }
+
+    /**
+     * Creates a chain of persons where each person knows the next one.
+     *
+     * @param depth number of persons in chain
+     * @return first person
+     */
+    public static Person persons(int depth) {
+        Person person = null;
+        for (int i = depth; i > 0; i--) {
+            person = new Person("Person " + i, person);
+        }
+        return person;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import de.escalon.hypermedia.spring.hydra.HydraMessageConverter;
+import de.escalon.hypermedia.spring.uber.UberJackson2HttpMessageConverter;
+import de.escalon.hypermedia.spring.xhtml.XhtmlResourceMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Media types under benchmark, together with the message converter which writes them.
+ */
+public enum MediaFormat {
+
+    HYDRA(HypermediaTypes.APPLICATION_JSONLD, true) {
+        @Override
+        public HttpMessageConverter<Object> createConverter() {
+            return new HydraMessageConverter();
+        }
+    },
+    XHTML(MediaType.TEXT_HTML, true) {
+        @Override
+        public HttpMessageConverter<Object> createConverter() {
+            return new XhtmlResourceMessageConverter();
+        }
+    },
+    // UberUtils can neither convert links nor enums yet
+    UBER(HypermediaTypes.UBER_JSON, false) {
+        @Override
+        public HttpMessageConverter<Object> createConverter() {
+            return new UberJackson2HttpMessageConverter();
+        }
+    };
+
+    private final MediaType mediaType;
+    private final boolean completeGraph;
+
+    MediaFormat(MediaType mediaType, boolean completeGraph) {
+        this.mediaType = mediaType;
+        this.completeGraph = completeGraph;
+    }
+
+    public abstract HttpMessageConverter<Object> createConverter();
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Determines if the converter can write links and enum values, otherwise fixtures for this format must leave them
+     * out.
+     *
+     * @return true if complete fixtures can be written
+     */
+    public boolean isWritingCompleteGraph() {
+        return completeGraph;
+    }
+
+    /**
+     * Writes object with a converter for this format.
+     *
+     * @param converter     created by {@link #createConverter()}
+     * @param object        to write
+     * @param outputMessage to write to, reset before writing
+     * @return number of bytes written
+     * @throws IOException if the converter fails to write
+     */
+    public long write(HttpMessageConverter<Object> converter, Object object, DiscardingOutputMessage outputMessage)
+            throws IOException {
+        outputMessage.reset();
+        converter.write(object, mediaType, outputMessage);
+        return outputMessage.getCount();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.spring.PartialUriTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and expands uri templates with path segment, query and fragment variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PartialUriTemplateBenchmark {
+
+    private static final String TEMPLATE = "http://example.com/events{/city}{?eventName,location}{#section}";
+
+    private PartialUriTemplate template;
+    private final Map<String, Object> allParameters = new HashMap<String, Object>();
+    private final Map<String, Object> someParameters = new HashMap<String, Object>();
+
+    @Setup
+    public void setUp() {
+        template = new PartialUriTemplate(TEMPLATE);
+        allParameters.put("city", "Wiesbaden");
+        allParameters.put("eventName", "Gang of Rhythm Tour");
+        allParameters.put("location", "Schlachthof");
+        allParameters.put("section", "reviews");
+        someParameters.put("city", "Wiesbaden");
+    }
+
+    @Benchmark
+    public PartialUriTemplate parse() {
+        return new PartialUriTemplate(TEMPLATE);
+    }
+
+    @Benchmark
+    public String expandAll() {
+        return template.expand(allParameters)
+                .toString();
+    }
+
+    @Benchmark
+    public String expandPartially() {
+        return template.expand(someParameters)
+                .toString();
+    }
+
+    @Benchmark
+    public String parseAndExpand() {
+        return new PartialUriTemplate(TEMPLATE).expand(someParameters)
+                .toString();
+    }
+}
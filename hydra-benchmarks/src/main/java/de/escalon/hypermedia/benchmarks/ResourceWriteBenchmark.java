@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.benchmarks.sample.Event;
+import de.escalon.hypermedia.benchmarks.sample.Person;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Resource;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a single resource with affordances and a deeply nested bean graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResourceWriteBenchmark {
+
+    @Param({"HYDRA", "XHTML", "UBER"})
+    public MediaFormat format;
+
+    @Param({"32"})
+    public int nestingDepth;
+
+    private HttpMessageConverter<Object> converter;
+    private final DiscardingOutputMessage outputMessage = new DiscardingOutputMessage();
+
+    private Resource<Event> event;
+    private Person persons;
+
+    @Setup
+    public void setUp() {
+        Fixtures.bindRequest();
+        converter = format.createConverter();
+        event = Fixtures.event(1, format.isWritingCompleteGraph());
+        persons = Fixtures.persons(nestingDepth);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.unbindRequest();
+    }
+
+    @Benchmark
+    public long writeResource() throws IOException {
+        return format.write(converter, event, outputMessage);
+    }
+
+    @Benchmark
+    public long writeNested() throws IOException {
+        return format.write(converter, persons, outputMessage);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks;
+
+import de.escalon.hypermedia.benchmarks.sample.Event;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes pages of event resources, each having its own affordances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class ResourcesWriteBenchmark {
+
+    @Param({"HYDRA", "XHTML", "UBER"})
+    public MediaFormat format;
+
+    @Param({"10", "1000", "100000"})
+    public int pageSize;
+
+    private HttpMessageConverter<Object> converter;
+    private final DiscardingOutputMessage outputMessage = new DiscardingOutputMessage();
+
+    private Resources<Resource<Event>> events;
+
+    @Setup
+    public void setUp() {
+        Fixtures.bindRequest();
+        converter = format.createConverter();
+        events = Fixtures.events(pageSize, format.isWritingCompleteGraph());
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.unbindRequest();
+    }
+
+    @Benchmark
+    public long writeResources() throws IOException {
+        return format.write(converter, events, outputMessage);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks.sample;
+
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller whose request mappings are the link targets of the benchmarks. The handler methods are never invoked.
+ */
+@Controller
+@RequestMapping("/events")
+public class EventController {
+
+    @RequestMapping(method = RequestMethod.GET)
+    public
+    @ResponseBody
+    Resources<Resource<Event>> findEvents(@RequestParam(required = false) String eventName,
+                                          @RequestParam(required = false) String location) {
+        return null;
+    }
+
+    @RequestMapping(value = "/{eventId}", method = RequestMethod.GET)
+    public
+    @ResponseBody
+    Resource<Event> getEvent(@PathVariable Integer eventId) {
+        return null;
+    }
+
+    @RequestMapping(value = "/{eventId}", method = RequestMethod.PUT)
+    public ResponseEntity<Void> updateEvent(@PathVariable Integer eventId, @RequestBody Event event) {
+        return new ResponseEntity<Void>(HttpStatus.OK);
+    }
+
+    @RequestMapping(method = RequestMethod.POST)
+    public HttpEntity<Void> addEvent(@RequestBody Event event) {
+        return new ResponseEntity<Void>(HttpStatus.CREATED);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.benchmarks.sample;
+
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Term;
+import org.springframework.hateoas.ResourceSupport;
+
+/**
+ * Sample Person which knows another person, used to build deeply nested graphs. Every level defines a term, so that
+ * the serializers have to handle a context per level.
+ */
+@Term(define = "foaf", as = "http://xmlns.com/foaf/0.1/")
+@Expose("foaf:Person")
+public class Person extends ResourceSupport {
+
+    private final String name;
+    private final Person knows;
+
+    public Person(String name, Person knows) {
+        this.name = name;
+        this.knows = knows;
+    }
+
+    @Expose("foaf:name")
+    public String getName() {
+        return name;
+    }
+
+    @Expose("foaf:knows")
+    public Person getKnows() {
+        return knows;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches a value computed from a class, without keeping the class loader of the class alive.
+ * <p>
+ * Values of classes loaded by the class loader of hydra-commons or one of its parents are cached strongly. Values of
+ * classes of other class loaders, e.g. of a redeployed web application, are only held by weak keys and soft values,
+ * so that their class loader can be garbage collected.
+ * </p>
+ *
+ * @param <V> cached value
+ */
+public abstract class ClassCache<V> {
+
+    private final ConcurrentMap<Class<?>, V> strongCache = new ConcurrentHashMap<Class<?>, V>(64);
+
+    private final Map<Class<?>, Reference<V>> softCache =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, Reference<V>>());
+
+    /**
+     * Computes the value for a class on first access.
+     *
+     * @param type to compute value for
+     * @return value, must not be null
+     */
+    protected abstract V compute(Class<?> type);
+
+    /**
+     * Gets value for the given class, computing it only on first access.
+     *
+     * @param type to get value for
+     * @return value, never null
+     */
+    public V get(Class<?> type) {
+        V ret = strongCache.get(type);
+        if (ret != null) {
+            return ret;
+        }
+        if (isCacheSafe(type)) {
+            ret = compute(type);
+            V existing = strongCache.putIfAbsent(type, ret);
+            return existing == null ? ret : existing;
+        }
+        Reference<V> reference = softCache.get(type);
+        ret = reference == null ? null : reference.get();
+        if (ret == null) {
+            ret = compute(type);
+            softCache.put(type, new SoftReference<V>(ret));
+        }
+        return ret;
+    }
+
+    /**
+     * Removes all cached values, e.g. when classes are redefined.
+     */
+    public void clear() {
+        strongCache.clear();
+        softCache.clear();
+    }
+
+    private static boolean isCacheSafe(Class<?> type) {
+        ClassLoader target = type.getClassLoader();
+        if (target == null) {
+            return true;
+        }
+        ClassLoader current = ClassCache.class.getClassLoader();
+        while (current != null) {
+            if (current == target) {
+                return true;
+            }
+            current = current.getParent();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * Immutable bean metadata of a class: property descriptors and accessors, readable and writable properties, public
+ * fields and the data type classification. Metadata is introspected once per class and shared by all modules. The
+ * {@link ClassCache} does not keep the class loaders of described classes alive.
+ */
+public final class ClassMetadata {
+
+    private static final ClassCache<ClassMetadata> cache = new ClassCache<ClassMetadata>() {
+        @Override
+        protected ClassMetadata compute(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<PropertyDescriptor> propertyDescriptors;
+    private final Map<String, PropertyDescriptor> propertyDescriptorsByName;
+    private final List<PropertyDescriptor> readableProperties;
+    private final List<PropertyDescriptor> writableProperties;
+    private final List<PropertyAccessor> propertyAccessors;
+    private final Map<String, PropertyAccessor> propertyAccessorsByName;
+    private final List<Field> publicFields;
+    private final boolean singleValueType;
+    private final boolean arrayOrCollection;
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        final PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type)
+                    .getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new RuntimeException("failed to get property descriptors of " + type.getName(), e);
+        }
+        Map<String, PropertyDescriptor> byName = new HashMap<String, PropertyDescriptor>();
+        List<PropertyDescriptor> readable = new ArrayList<PropertyDescriptor>(descriptors.length);
+        List<PropertyDescriptor> writable = new ArrayList<PropertyDescriptor>(descriptors.length);
+        List<PropertyAccessor> accessors = new ArrayList<PropertyAccessor>(descriptors.length);
+        Map<String, PropertyAccessor> accessorsByName = new HashMap<String, PropertyAccessor>();
+        for (PropertyDescriptor descriptor : descriptors) {
+            byName.put(descriptor.getName(), descriptor);
+            PropertyAccessor accessor = new PropertyAccessor(descriptor);
+            accessors.add(accessor);
+            accessorsByName.put(descriptor.getName(), accessor);
+            if (descriptor.getReadMethod() != null) {
+                readable.add(descriptor);
+            }
+            if (descriptor.getWriteMethod() != null) {
+                writable.add(descriptor);
+            }
+        }
+        this.propertyDescriptors = Collections.unmodifiableList(Arrays.asList(descriptors));
+        this.propertyDescriptorsByName = Collections.unmodifiableMap(byName);
+        this.readableProperties = Collections.unmodifiableList(readable);
+        this.writableProperties = Collections.unmodifiableList(writable);
+        this.propertyAccessors = Collections.unmodifiableList(accessors);
+        this.propertyAccessorsByName = Collections.unmodifiableMap(accessorsByName);
+        // getFields retrieves public only
+        this.publicFields = Collections.unmodifiableList(Arrays.asList(type.getFields()));
+        this.singleValueType = DataType.isSingleValueType(type);
+        this.arrayOrCollection = DataType.isArrayOrCollection(type);
+    }
+
+    /**
+     * Gets metadata of the given class, introspecting the class only on first access.
+     *
+     * @param type to describe
+     * @return metadata, never null
+     */
+    public static ClassMetadata forClass(Class<?> type) {
+        return cache.get(type);
+    }
+
+    /**
+     * Removes all cached metadata, e.g. when classes are redefined.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets property descriptors in the order of the {@link Introspector}.
+     *
+     * @return unmodifiable list of property descriptors
+     */
+    public List<PropertyDescriptor> getPropertyDescriptors() {
+        return propertyDescriptors;
+    }
+
+    /**
+     * Gets property descriptors by property name.
+     *
+     * @return unmodifiable map
+     */
+    public Map<String, PropertyDescriptor> getPropertyDescriptorsByName() {
+        return propertyDescriptorsByName;
+    }
+
+    /**
+     * Gets property descriptor by name.
+     *
+     * @param propertyName of property
+     * @return property descriptor or null
+     */
+    public PropertyDescriptor getPropertyDescriptor(String propertyName) {
+        return propertyDescriptorsByName.get(propertyName);
+    }
+
+    /**
+     * Gets properties having a read method.
+     *
+     * @return unmodifiable list of property descriptors
+     */
+    public List<PropertyDescriptor> getReadableProperties() {
+        return readableProperties;
+    }
+
+    /**
+     * Gets properties having a write method.
+     *
+     * @return unmodifiable list of property descriptors
+     */
+    public List<PropertyDescriptor> getWritableProperties() {
+        return writableProperties;
+    }
+
+    /**
+     * Gets property accessors in the order of the {@link Introspector}.
+     *
+     * @return unmodifiable list of accessors
+     */
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return propertyAccessors;
+    }
+
+    /**
+     * Gets property accessors by property name. Iterates in the same order as
+     * {@link #getPropertyDescriptorsByName()}.
+     *
+     * @return unmodifiable map
+     */
+    public Map<String, PropertyAccessor> getPropertyAccessorsByName() {
+        return propertyAccessorsByName;
+    }
+
+    /**
+     * Gets property accessor by name.
+     *
+     * @param propertyName of property
+     * @return accessor or null
+     */
+    public PropertyAccessor getPropertyAccessor(String propertyName) {
+        return propertyAccessorsByName.get(propertyName);
+    }
+
+    /**
+     * Gets public fields, including inherited ones.
+     *
+     * @return unmodifiable list of fields
+     */
+    public List<Field> getPublicFields() {
+        return publicFields;
+    }
+
+    /**
+     * Determines if the class holds only one data item.
+     *
+     * @return true if class is scalar
+     * @see DataType#isSingleValueType(Class)
+     */
+    public boolean isSingleValueType() {
+        return singleValueType;
+    }
+
+    /**
+     * Determines if the class is an array or collection.
+     *
+     * @return true if array or collection
+     * @see DataType#isArrayOrCollection(Class)
+     */
+    public boolean isArrayOrCollection() {
+        return arrayOrCollection;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reads and writes a bean property. The accessor methods are made accessible once when the accessor is created, so
+ * that invocations skip the language access checks. Accessors are created by {@link ClassMetadata} and shared by
+ * all beans of a class.
+ */
+public final class PropertyAccessor {
+
+    private final PropertyDescriptor propertyDescriptor;
+    private final Method readMethod;
+    private final Method writeMethod;
+
+    PropertyAccessor(PropertyDescriptor propertyDescriptor) {
+        this.propertyDescriptor = propertyDescriptor;
+        this.readMethod = makeAccessible(propertyDescriptor.getReadMethod());
+        this.writeMethod = makeAccessible(propertyDescriptor.getWriteMethod());
+    }
+
+    private static Method makeAccessible(Method method) {
+        if (method != null && !method.isAccessible()) {
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException e) {
+                // keep access checks if a security manager or the module system (InaccessibleObjectException since
+                // Java 9) does not allow to suppress them
+            }
+        }
+        return method;
+    }
+
+    public String getName() {
+        return propertyDescriptor.getName();
+    }
+
+    public Class<?> getPropertyType() {
+        return propertyDescriptor.getPropertyType();
+    }
+
+    public PropertyDescriptor getPropertyDescriptor() {
+        return propertyDescriptor;
+    }
+
+    public Method getReadMethod() {
+        return readMethod;
+    }
+
+    public Method getWriteMethod() {
+        return writeMethod;
+    }
+
+    public boolean isReadable() {
+        return readMethod != null;
+    }
+
+    public boolean isWritable() {
+        return writeMethod != null;
+    }
+
+    /**
+     * Reads property value.
+     *
+     * @param bean to read from, must be an instance of the class which declares the property
+     * @return property value
+     * @throws IllegalStateException if the property is not readable
+     */
+    public Object getValue(Object bean) {
+        if (readMethod == null) {
+            throw new IllegalStateException("property " + getName() + " is not readable");
+        }
+        try {
+            return readMethod.invoke(bean);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("failed to read property " + getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("failed to read property " + getName(), e.getCause());
+        }
+    }
+
+    /**
+     * Writes property value.
+     *
+     * @param bean  to write to, must be an instance of the class which declares the property
+     * @param value to write
+     * @throws IllegalStateException if the property is not writable
+     */
+    public void setValue(Object bean, Object value) {
+        if (writeMethod == null) {
+            throw new IllegalStateException("property " + getName() + " is not writable");
+        }
+        try {
+            writeMethod.invoke(bean, value);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("failed to write property " + getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("failed to write property " + getName(), e.getCause());
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package de.escalon.hypermedia;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -28,18 +25,16 @@ public class PropertyUtils {
         return propertyValue;
     }
 
+    /**
+     * Gets property descriptors of bean by property name.
+     *
+     * @param bean to describe
+     * @return unmodifiable map, shared by all beans of the same class
+     * @see ClassMetadata
+     */
     public static Map<String, PropertyDescriptor> getPropertyDescriptors(Object bean) {
-        try {
-            PropertyDescriptor[] propertyDescriptors = Introspector.getBeanInfo(bean.getClass())
-                    .getPropertyDescriptors();
-            Map<String, PropertyDescriptor> ret = new HashMap<String, PropertyDescriptor>();
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                ret.put(propertyDescriptor.getName(), propertyDescriptor);
-            }
-            return ret;
-        } catch (IntrospectionException e) {
-            throw new RuntimeException("failed to get property descriptors of bean " + bean, e);
-        }
+        return ClassMetadata.forClass(bean.getClass())
+                .getPropertyDescriptorsByName();
     }
 
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia;
+
+import org.junit.Test;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClassMetadataTest {
+
+    public static class Person {
+        public String nickname;
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    @Test
+    public void introspectsClassOnce() {
+        assertSame(ClassMetadata.forClass(Person.class), ClassMetadata.forClass(Person.class));
+    }
+
+    @Test
+    public void separatesReadableAndWritableProperties() {
+        ClassMetadata classMetadata = ClassMetadata.forClass(Person.class);
+
+        assertEquals(3, classMetadata.getPropertyDescriptors()
+                .size()); // age, class, name
+        assertEquals("[age, class, name]", names(classMetadata.getReadableProperties()));
+        assertEquals("[name]", names(classMetadata.getWritableProperties()));
+        assertNull(classMetadata.getPropertyDescriptor("nickname"));
+        assertEquals("nickname", classMetadata.getPublicFields()
+                .get(0)
+                .getName());
+    }
+
+    @Test
+    public void readsAndWritesPropertiesWithAccessors() {
+        Person person = new Person();
+        ClassMetadata classMetadata = ClassMetadata.forClass(Person.class);
+        PropertyAccessor name = classMetadata.getPropertyAccessor("name");
+
+        name.setValue(person, "Dietrich");
+
+        assertEquals("Dietrich", name.getValue(person));
+        assertEquals(0, classMetadata.getPropertyAccessor("age")
+                .getValue(person));
+        assertFalse(classMetadata.getPropertyAccessor("age")
+                .isWritable());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsWriteWithoutSetter() {
+        ClassMetadata.forClass(Person.class)
+                .getPropertyAccessor("age")
+                .setValue(new Person(), 42);
+    }
+
+    @Test
+    public void classifiesDataType() {
+        assertTrue(ClassMetadata.forClass(Integer.class)
+                .isSingleValueType());
+        assertTrue(ClassMetadata.forClass(ArrayList.class)
+                .isArrayOrCollection());
+        assertFalse(ClassMetadata.forClass(Person.class)
+                .isSingleValueType());
+    }
+
+    private String names(List<PropertyDescriptor> propertyDescriptors) {
+        List<String> ret = new ArrayList<String>();
+        for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+            ret.add(propertyDescriptor.getName());
+        }
+        return ret.toString();
+    }
+}
@@ -13,6 +13,7 @@
 package de.escalon.hypermedia.hydra.serialize;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.ser.impl.BeanAsArraySerializer;
 import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
@@ -29,20 +30,59 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
 
     public static final String KEY_LD_CONTEXT = "de.escalon.hypermedia.ld-context";
 
-    private LdContextFactory ldContextFactory = new LdContextFactory();
+    private static final SerializedString AT_TYPE = new SerializedString(JsonLdKeywords.AT_TYPE);
+
+    /**
+     * Shared by all serializers, caches the class-dependent parts of resolved contexts.
+     */
+    private static final LdContextFactory ldContextFactory = new LdContextFactory();
+
+    /**
+     * Shared by all serializers, writes contexts.
+     */
+    private static final LdContextWriter ldContextWriter = new LdContextWriter();
+
+    /**
+     * Registry for external contexts, null if contexts are written inline.
+     */
+    private final LdContextRegistry ldContextRegistry;
+
+    /**
+     * Type name resolved for the last serialized bean class, null until the first bean is serialized.
+     */
+    private volatile TypeName typeName;
 
     public JacksonHydraSerializer(BeanSerializerBase source) {
         super(source);
+        this.ldContextRegistry = getLdContextRegistry(source);
+    }
+
+    /**
+     * Creates serializer which writes the context of top-level beans as external context.
+     *
+     * @param source            to decorate
+     * @param ldContextRegistry to register external contexts, null to write contexts inline
+     */
+    public JacksonHydraSerializer(BeanSerializerBase source, LdContextRegistry ldContextRegistry) {
+        super(source);
+        this.ldContextRegistry = ldContextRegistry;
     }
 
     public JacksonHydraSerializer(BeanSerializerBase source,
                                   ObjectIdWriter objectIdWriter) {
         super(source, objectIdWriter);
+        this.ldContextRegistry = getLdContextRegistry(source);
     }
 
     public JacksonHydraSerializer(BeanSerializerBase source,
                                   String[] toIgnore) {
         super(source, toIgnore);
+        this.ldContextRegistry = getLdContextRegistry(source);
+    }
+
+    private static LdContextRegistry getLdContextRegistry(BeanSerializerBase source) {
+        return source instanceof JacksonHydraSerializer ?
+                ((JacksonHydraSerializer) source).ldContextRegistry : null;
     }
 
     public BeanSerializerBase withObjectIdWriter(
@@ -85,11 +125,7 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         if (!isUnwrappingSerializer()) {
             jgen.writeStartObject();
         }
-        Deque<LdContext> contextStack = (Deque<LdContext>) serializerProvider.getAttribute(KEY_LD_CONTEXT);
-        if (contextStack == null) {
-            contextStack = new ArrayDeque<LdContext>();
-            serializerProvider.setAttribute(KEY_LD_CONTEXT, contextStack);
-        }
+        final LdContextStack contextStack = LdContextStack.getOrCreate(serializerProvider);
 
         serializeContext(bean, jgen, serializerProvider, contextStack);
         serializeType(bean, jgen, serializerProvider);
@@ -97,18 +133,38 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         if (!isUnwrappingSerializer()) {
             jgen.writeEndObject();
         }
-        contextStack = (Deque<LdContext>) serializerProvider.getAttribute(KEY_LD_CONTEXT);
-        if (!contextStack.isEmpty()) {
-            contextStack.pop();
-        }
+        contextStack.pop();
     }
 
     private void serializeType(Object bean, JsonGenerator jgen, SerializerProvider provider) throws IOException {
         // adds @type attribute, reflecting the simple name of the class or the exposed annotation on the class.
-        final Expose classExpose = getAnnotation(bean.getClass(), Expose.class);
-        // TODO allow to search up the hierarchy for ResourceSupport mixins and cache found result?
+        jgen.writeFieldName(AT_TYPE);
+        jgen.writeString(getTypeName(bean, provider));
+    }
+
+    /**
+     * Gets the type name of the bean. The serializer is created per bean type, so the type name is resolved only
+     * once, unless the serializer is used for beans of another class.
+     *
+     * @param bean     to serialize
+     * @param provider of the serializer configuration which knows the mixins
+     * @return type name
+     */
+    private SerializedString getTypeName(Object bean, SerializerProvider provider) {
+        final Class<?> beanClass = bean.getClass();
+        TypeName ret = typeName;
+        if (ret == null || ret.beanClass != beanClass) {
+            ret = new TypeName(beanClass, new SerializedString(findTypeName(beanClass, provider)));
+            typeName = ret;
+        }
+        return ret.value;
+    }
+
+    private String findTypeName(Class<?> beanClass, SerializerProvider provider) {
+        final Expose classExpose = getAnnotation(beanClass, Expose.class);
+        // TODO allow to search up the hierarchy for ResourceSupport mixins?
         final Class<?> mixin = provider.getConfig()
-                .findMixInClassFor(bean.getClass());
+                .findMixInClassFor(beanClass);
         final Expose mixinExpose = getAnnotation(mixin, Expose.class);
         final String val;
         if (mixinExpose != null) {
@@ -116,52 +172,57 @@ public class JacksonHydraSerializer extends BeanSerializerBase {
         } else if (classExpose != null) {
             val = classExpose.value(); // expose is better than Java type
         } else {
-            val = bean.getClass()
-                    .getSimpleName();
+            val = beanClass.getSimpleName();
         }
+        return val;
+    }
 
-        jgen.writeStringField(JsonLdKeywords.AT_TYPE, val);
+    private static class TypeName {
+        final Class<?> beanClass;
+        final SerializedString value;
+
+        TypeName(Class<?> beanClass, SerializedString value) {
+            this.beanClass = beanClass;
+            this.value = value;
+        }
     }
 
     private void serializeContext(Object bean, JsonGenerator jgen,
-                                  SerializerProvider serializerProvider, Deque<LdContext> contextStack) throws IOException {
+                                  SerializerProvider serializerProvider, LdContextStack contextStack) throws IOException {
 
-            MixinSource mixinSource = new JacksonMixinSource(serializerProvider.getConfig());
+            MixinSource mixinSource = contextStack.getMixinSource();
             final Class<?> mixInClass = mixinSource.findMixInClassFor(bean.getClass());
 
             final LdContext parentContext = contextStack.peek();
-            LdContext currentContext = new LdContext(parentContext, ldContextFactory.getVocab(mixinSource, bean, mixInClass), ldContextFactory.getTerms(mixinSource, bean, mixInClass));
-            contextStack.push(currentContext);
+            final LdContext beanContext = ldContextFactory.getContext(mixinSource, bean, mixInClass);
             // check if we need to write a context for the current bean at all
             // If it is in the same vocab: no context
             // If the terms are already defined in the context: no context
-            boolean mustWriteContext;
-            if (parentContext == null || !parentContext.contains(currentContext)) {
-                mustWriteContext = true;
+            if (parentContext != null && parentContext.contains(beanContext)) {
+                // the parent context remains in scope, nothing to allocate
+                contextStack.push(parentContext);
             } else {
-                mustWriteContext = false;
-            }
-
-            if (mustWriteContext) {
-                // begin context
+                final LdContext currentContext = parentContext == null ? beanContext : parentContext.nest(beanContext);
+                contextStack.push(currentContext);
                 // default context: schema.org vocab or vocab package annotation
-                jgen.writeObjectFieldStart("@context");
                 // do not repeat vocab if already defined in current context
+                final String vocab;
                 if (parentContext == null || parentContext.vocab == null ||
                         (currentContext.vocab != null && !currentContext.vocab.equals(parentContext.vocab))) {
-                    jgen.writeStringField(JsonLdKeywords.AT_VOCAB, currentContext.vocab);
+                    vocab = currentContext.vocab;
+                } else {
+                    vocab = null;
                 }
-
-                for (Map.Entry<String, Object> termEntry : currentContext.terms.entrySet()) {
-                    if (termEntry.getValue() instanceof String) {
-                        jgen.writeStringField(termEntry.getKey(), termEntry.getValue()
-                                .toString());
-                    } else {
-                        jgen.writeObjectField(termEntry.getKey(), termEntry.getValue());
-                    }
+                // top-level context as external context, if the registry takes it
+                final String contextIri = parentContext == null && ldContextRegistry != null ?
+                        ldContextRegistry.register(getTypeName(bean, serializerProvider).getValue(),
+                                ldContextWriter.getEncodedContext(jgen.getCodec(), currentContext, vocab)
+                                        .getValue()) : null;
+                if (contextIri != null) {
+                    jgen.writeStringField(JsonLdKeywords.AT_CONTEXT, contextIri);
+                } else {
+                    ldContextWriter.writeContext(jgen, currentContext, vocab);
                 }
-                jgen.writeEndObject();
-                // end context
             }
             // TODO build the context from @Vocab and @Term and @Expose and write it as local or external context with
             // TODO jsonld extension (using apt?)
@@ -5,6 +5,7 @@ package de.escalon.hypermedia.hydra.serialize;
  */
 public class JsonLdKeywords {
 
+    public static final String AT_CONTEXT = "@context";
     public static final String AT_VOCAB = "@vocab";
     public static final String AT_TYPE = "@type";
     public static final String AT_ID = "@id";
@@ -2,51 +2,151 @@ package de.escalon.hypermedia.hydra.serialize;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Holds Jsonld Context with context inheritance from parent contexts.
+ * <p>
+ * Contexts which only depend on bean classes can be interned. An interned context remembers which interned contexts
+ * it contains and which interned contexts are nested into it, so that these answers are computed only once per pair
+ * of contexts.
+ * </p>
  * Created by Dietrich on 02.04.2015.
  */
 public class LdContext {
 
+    /**
+     * Limits the depth of interned context chains, deeper nested contexts are not interned.
+     */
+    private static final int MAX_INTERNED_DEPTH = 8;
+
     private LdContext parentContext;
     public final String vocab;
     public final Map<String, Object> terms;
 
+    private final int depth;
+
+    /**
+     * Results of {@link #contains(LdContext)} by interned other context, null if this context is not interned.
+     */
+    private final ConcurrentMap<LdContext, Boolean> containedContexts;
+
+    /**
+     * Interned contexts having this context as parent, by interned context of the nested bean, null if this context
+     * is not interned.
+     */
+    private final ConcurrentMap<LdContext, LdContext> nestedContexts;
+
+    /**
+     * Json encoding of this context, kept by the {@link LdContextWriter} for interned contexts only.
+     */
+    volatile LdContextWriter.Encoding encoding;
+
     public LdContext(LdContext parentContext, String vocab, Map<String, Object> terms) {
+        this(parentContext, vocab, Collections.unmodifiableMap(terms), false);
+    }
+
+    private LdContext(LdContext parentContext, String vocab, Map<String, Object> terms, boolean interned) {
         this.parentContext = parentContext;
         this.vocab = vocab;
-        this.terms = Collections.unmodifiableMap(terms);
+        this.terms = terms;
+        this.depth = parentContext == null ? 0 : parentContext.depth + 1;
+        if (interned) {
+            this.containedContexts = new ConcurrentHashMap<LdContext, Boolean>(8, 0.75f, 1);
+            this.nestedContexts = new ConcurrentHashMap<LdContext, LdContext>(8, 0.75f, 1);
+        } else {
+            this.containedContexts = null;
+            this.nestedContexts = null;
+        }
+    }
+
+    /**
+     * Creates an interned top-level context. The caller is responsible to create only one context per vocab and
+     * terms.
+     *
+     * @param vocab of context
+     * @param terms of context, must be unmodifiable
+     * @return interned context
+     */
+    static LdContext interned(String vocab, Map<String, Object> terms) {
+        return new LdContext(null, vocab, terms, true);
+    }
+
+    boolean isInterned() {
+        return containedContexts != null;
+    }
+
+    /**
+     * Gets a context which has this context as parent and the vocab and terms of the given context. If both
+     * contexts are interned, the nested context is interned as well.
+     *
+     * @param otherContext context of a nested bean
+     * @return nested context
+     */
+    LdContext nest(LdContext otherContext) {
+        if (!isInterned() || !otherContext.isInterned() || depth >= MAX_INTERNED_DEPTH) {
+            return new LdContext(this, otherContext.vocab, otherContext.terms, false);
+        }
+        LdContext ret = nestedContexts.get(otherContext);
+        if (ret == null) {
+            ret = new LdContext(this, otherContext.vocab, otherContext.terms, true);
+            LdContext existing = nestedContexts.putIfAbsent(otherContext, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
     }
 
     public boolean contains(LdContext otherContext) {
+        if (!isInterned() || !otherContext.isInterned()) {
+            return contains(otherContext.vocab, otherContext.terms);
+        }
+        Boolean ret = containedContexts.get(otherContext);
+        if (ret == null) {
+            ret = contains(otherContext.vocab, otherContext.terms);
+            containedContexts.put(otherContext, ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if this context, including its parents, already defines the given vocab and terms. Allows to check a
+     * bean context before an LdContext is created for it.
+     *
+     * @param otherVocab vocab of the other context
+     * @param otherTerms terms of the other context
+     * @return true if the other context adds nothing to this context
+     */
+    public boolean contains(String otherVocab, Map<String, Object> otherTerms) {
         final boolean ret;
-        if (!hasSameVocabAs(otherContext)) {
+        if (!hasSameVocabAs(otherVocab)) {
             ret = false;
         } else {
-            ret = this.hasTermsOf(otherContext);
+            ret = this.hasTermsOf(otherTerms);
         }
         return ret;
     }
 
-    private boolean hasSameVocabAs(LdContext otherContext) {
+    private boolean hasSameVocabAs(String otherVocab) {
         boolean ret;
         if (this.vocab == null) {
             if (parentContext == null) {
                 ret = false;
             } else {
-                ret = parentContext.hasSameVocabAs(otherContext);
+                ret = parentContext.hasSameVocabAs(otherVocab);
             }
         } else {
-            ret = this.vocab.equals(otherContext.vocab);
+            ret = this.vocab.equals(otherVocab);
         }
         return ret;
     }
 
-    private boolean hasTermsOf(LdContext otherContext) {
+    private boolean hasTermsOf(Map<String, Object> otherTerms) {
         boolean ret = true;
-        for (String otherTerm : otherContext.terms.keySet()) {
-            ret = hasEqualTerm(otherTerm, otherContext.terms.get(otherTerm));
+        for (Map.Entry<String, Object> otherTerm : otherTerms.entrySet()) {
+            ret = hasEqualTerm(otherTerm.getKey(), otherTerm.getValue());
             if (ret == false) {
                 break;
             }
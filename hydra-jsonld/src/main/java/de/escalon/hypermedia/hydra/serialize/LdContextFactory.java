@@ -1,27 +1,45 @@
 package de.escalon.hypermedia.hydra.serialize;
 
 import de.escalon.hypermedia.AnnotationUtils;
+import de.escalon.hypermedia.ClassCache;
+import de.escalon.hypermedia.ClassMetadata;
+import de.escalon.hypermedia.PropertyAccessor;
 import de.escalon.hypermedia.hydra.mapping.*;
 import org.apache.commons.lang3.text.WordUtils;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static de.escalon.hypermedia.AnnotationUtils.getAnnotation;
 
 /**
+ * Resolves vocab and terms of a bean. The parts of a context which only depend on the bean class and its mixin are
+ * resolved once and cached by the factory instance.
  * Created by Dietrich on 05.04.2015.
  */
 public class LdContextFactory {
 
     public static final String HTTP_SCHEMA_ORG = "http://schema.org/";
 
+    /**
+     * Stands in for a missing mixin class, since concurrent maps do not allow null keys.
+     */
+    private static final Class<?> NO_MIXIN = Void.class;
+
+    /**
+     * Class contexts by bean class and mixin class, nested so that lookups need no composite key.
+     */
+    private final ClassCache<ConcurrentMap<Class<?>, ClassContext>> classContexts =
+            new ClassCache<ConcurrentMap<Class<?>, ClassContext>>() {
+                @Override
+                protected ConcurrentMap<Class<?>, ClassContext> compute(Class<?> type) {
+                    return new ConcurrentHashMap<Class<?>, ClassContext>(4);
+                }
+            };
+
     /**
      * Gets vocab for given bean.
      *
@@ -30,11 +48,11 @@ public class LdContextFactory {
      * @return explicitly defined vocab or http://schema.org
      */
     public String getVocab(MixinSource mixinSource, Object bean, Class<?> mixInClass) {
-        // determine vocab in context
-        String classVocab = vocabFromClass(bean.getClass(), HTTP_SCHEMA_ORG);
-
-        final Vocab mixinVocab = getAnnotation(mixInClass, Vocab.class);
-
+        final ClassContext classContext = getClassContext(bean.getClass(), mixInClass);
+        if (classContext.vocab != null) {
+            return classContext.vocab;
+        }
+        // no vocab on mixin or class, ask context provider
         Object nestedContextProviderFromMixin = getNestedContextProviderFromMixin(mixinSource, bean, mixInClass);
         String contextProviderVocab = null;
         if (nestedContextProviderFromMixin != null) {
@@ -42,11 +60,7 @@ public class LdContextFactory {
         }
 
         String vocab;
-        if (mixinVocab != null) {
-            vocab = mixinVocab.value(); // wins over class
-        } else if (classVocab != null) {
-            vocab = classVocab; // wins over context provider
-        } else if (contextProviderVocab != null) {
+        if (contextProviderVocab != null) {
             vocab = contextProviderVocab; // wins over last resort
         } else {
             vocab = HTTP_SCHEMA_ORG;
@@ -54,21 +68,87 @@ public class LdContextFactory {
         return vocab;
     }
 
+    /**
+     * Gets terms for given bean. The terms which only depend on the bean class and the mixin class are resolved once
+     * per class and mixin, only terms depending on the current bean value, i.e. enum values and context provider
+     * items, are resolved for each invocation.
+     *
+     * @param mixinSource to look up mixins of nested context providers
+     * @param bean        to inspect for terms
+     * @param mixInClass  for bean which might define terms or has a context provider
+     * @return terms, must not be modified by the caller
+     */
     public Map<String, Object> getTerms(MixinSource mixinSource, Object bean, Class<?> mixInClass) {
+        final ClassContext classContext = getClassContext(bean.getClass(), mixInClass);
+        if (classContext.staticTerms != null) {
+            return classContext.staticTerms;
+        }
+        try {
+            Map<String, Object> termsMap = new LinkedHashMap<String, Object>();
+            for (TermSource termSource : classContext.termSources) {
+                termSource.addTerms(this, termsMap, mixinSource, bean, mixInClass);
+            }
+            return termsMap;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the context of the given bean, without parent context. If the context only depends on the bean class and
+     * the mixin class, the same interned context is returned for all beans of the class.
+     *
+     * @param mixinSource to look up mixins of nested context providers
+     * @param bean        to inspect for vocab and terms
+     * @param mixInClass  for bean which might define vocab and terms or has a context provider
+     * @return context of bean
+     */
+    public LdContext getContext(MixinSource mixinSource, Object bean, Class<?> mixInClass) {
+        final ClassContext classContext = getClassContext(bean.getClass(), mixInClass);
+        if (classContext.staticContext != null) {
+            return classContext.staticContext;
+        }
+        return new LdContext(null, getVocab(mixinSource, bean, mixInClass), getTerms(mixinSource, bean, mixInClass));
+    }
 
+    private ClassContext getClassContext(Class<?> beanClass, Class<?> mixInClass) {
+        ConcurrentMap<Class<?>, ClassContext> contextsByMixin = classContexts.get(beanClass);
+        final Class<?> mixinKey = mixInClass == null ? NO_MIXIN : mixInClass;
+        ClassContext classContext = contextsByMixin.get(mixinKey);
+        if (classContext == null) {
+            classContext = createClassContext(beanClass, mixInClass);
+            ClassContext existing = contextsByMixin.putIfAbsent(mixinKey, classContext);
+            if (existing != null) {
+                classContext = existing;
+            }
+        }
+        return classContext;
+    }
+
+    private ClassContext createClassContext(Class<?> beanClass, Class<?> mixInClass) {
         try {
+            // determine vocab in context
+            String classVocab = vocabFromClass(beanClass, HTTP_SCHEMA_ORG);
+            final Vocab mixinVocab = getAnnotation(mixInClass, Vocab.class);
+            String vocab;
+            if (mixinVocab != null) {
+                vocab = mixinVocab.value(); // wins over class
+            } else {
+                vocab = classVocab; // wins over context provider, null if context provider must decide
+            }
 
-            final Class<?> beanClass = bean.getClass();
+            final Method contextProvider = getContextProviderOfBean(beanClass, mixInClass);
+
+            final List<TermSource> termSources = new ArrayList<TermSource>();
             Map<String, Object> termsMap = termsFromClass(beanClass);
             Map<String, Object> mixinTermsMap = getAnnotatedTerms(mixInClass, beanClass
                     .getName());
-
             // mixin terms override class terms
             termsMap.putAll(mixinTermsMap);
+            termSources.add(new FixedTerms(termsMap));
 
-            Object nestedContextProviderFromMixin = getNestedContextProviderFromMixin(mixinSource, bean, mixInClass);
-            if (nestedContextProviderFromMixin != null) {
-                termsMap.putAll(getTerms(mixinSource, nestedContextProviderFromMixin, null));
+            if (contextProvider != null) {
+                termSources.add(new ContextProviderTerms());
             }
 
             final Field[] fields = beanClass
@@ -77,31 +157,33 @@ public class LdContextFactory {
                 if (Modifier.isPublic(field.getModifiers())) {
                     final Expose expose = field.getAnnotation(Expose.class);
                     if (Enum.class.isAssignableFrom(field.getType())) {
-                        addEnumTerms(termsMap, expose, field.getName(), (Enum) field.get(bean));
+                        termSources.add(new EnumFieldTerms(field, expose));
                     } else {
                         if (expose != null) {
-                            termsMap.put(field.getName(), expose.value());
+                            termSources.add(new FixedTerms(Collections.<String, Object>singletonMap(field.getName(),
+                                    expose.value())));
                         }
                     }
                 }
             }
 
-            final BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
-            final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                final Method method = propertyDescriptor.getReadMethod();
-                if (method != null) {
-                    final Expose expose = method.getAnnotation(Expose.class);
-                    if (Enum.class.isAssignableFrom(method.getReturnType())) {
-                        addEnumTerms(termsMap, expose, propertyDescriptor.getName(), (Enum) method.invoke(bean));
-                    } else {
-                        if (expose != null) {
-                            termsMap.put(propertyDescriptor.getName(), expose.value());
-                        }
+            for (PropertyAccessor propertyAccessor : ClassMetadata.forClass(beanClass)
+                    .getPropertyAccessors()) {
+                final Method method = propertyAccessor.getReadMethod();
+                if (method == null) {
+                    continue;
+                }
+                final Expose expose = method.getAnnotation(Expose.class);
+                if (Enum.class.isAssignableFrom(method.getReturnType())) {
+                    termSources.add(new EnumPropertyTerms(propertyAccessor, expose));
+                } else {
+                    if (expose != null) {
+                        termSources.add(new FixedTerms(Collections.<String, Object>singletonMap(
+                                propertyAccessor.getName(), expose.value())));
                     }
                 }
             }
-            return termsMap;
+            return new ClassContext(vocab, contextProvider, termSources);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -144,13 +226,11 @@ public class LdContextFactory {
             return null;
         }
         try {
-            Method mixinContextProvider = getContextProvider(mixinClass);
-            if (mixinContextProvider == null) {
+            Method contextProvider = getClassContext(bean.getClass(), mixinClass).contextProvider;
+            if (contextProvider == null) {
                 return null;
             }
-            Class<?> beanClass = bean.getClass();
-            Object contextual = beanClass.getMethod(mixinContextProvider.getName())
-                    .invoke(bean);
+            Object contextual = contextProvider.invoke(bean);
             Object ret = null;
             if (contextual instanceof Collection) {
                 Collection collection = (Collection) contextual;
@@ -186,10 +266,28 @@ public class LdContextFactory {
         }
     }
 
+    /**
+     * Gets the method of the bean class which corresponds to the context provider method declared on the mixin.
+     *
+     * @param beanClass  declaring the context provider method
+     * @param mixinClass which might define a context provider, may be null
+     * @return context provider method of bean class or null
+     */
+    private Method getContextProviderOfBean(Class<?> beanClass, Class<?> mixinClass) throws NoSuchMethodException {
+        if (mixinClass == null) {
+            return null;
+        }
+        Method mixinContextProvider = getContextProvider(mixinClass);
+        if (mixinContextProvider == null) {
+            return null;
+        }
+        return beanClass.getMethod(mixinContextProvider.getName());
+    }
+
     private Method getContextProvider(Class<?> beanClass) {
         Class<? extends Annotation> annotation = ContextProvider.class;
         Method contextProvider = AnnotationUtils.getAnnotatedMethod(beanClass, annotation);
-        if (contextProvider.getParameterTypes().length > 0) {
+        if (contextProvider != null && contextProvider.getParameterTypes().length > 0) {
             throw new IllegalStateException("the context provider method " + contextProvider.getName() + " must not have arguments");
         }
         return contextProvider;
@@ -245,4 +343,116 @@ public class LdContextFactory {
         termsMap.putAll(classTermsMap);
         return termsMap;
     }
+
+    /**
+     * Context information which only depends on bean class and mixin class.
+     */
+    private static class ClassContext {
+        /**
+         * Vocab defined by mixin or class, null if the vocab depends on the context provider.
+         */
+        final String vocab;
+        /**
+         * Context provider method of bean class, null if the mixin has no context provider.
+         */
+        final Method contextProvider;
+        /**
+         * Sources of terms in the order in which they must be applied.
+         */
+        final List<TermSource> termSources;
+        /**
+         * Terms of the bean class if they do not depend on the bean value, otherwise null.
+         */
+        final Map<String, Object> staticTerms;
+        /**
+         * Interned context of the bean class if neither vocab nor terms depend on the bean value, otherwise null.
+         */
+        final LdContext staticContext;
+
+        ClassContext(String vocab, Method contextProvider, List<TermSource> termSources) {
+            this.vocab = vocab;
+            this.contextProvider = contextProvider;
+            this.termSources = termSources;
+            Map<String, Object> terms = new LinkedHashMap<String, Object>();
+            boolean isStatic = true;
+            for (TermSource termSource : termSources) {
+                if (termSource instanceof FixedTerms) {
+                    terms.putAll(((FixedTerms) termSource).terms);
+                } else {
+                    isStatic = false;
+                    break;
+                }
+            }
+            this.staticTerms = isStatic ? Collections.unmodifiableMap(terms) : null;
+            this.staticContext = isStatic && vocab != null ? LdContext.interned(vocab, staticTerms) : null;
+        }
+    }
+
+    /**
+     * Contributes terms to the context of a bean.
+     */
+    private interface TermSource {
+        void addTerms(LdContextFactory factory, Map<String, Object> termsMap, MixinSource mixinSource, Object bean,
+                      Class<?> mixInClass) throws Exception;
+    }
+
+    private static class FixedTerms implements TermSource {
+        private final Map<String, Object> terms;
+
+        FixedTerms(Map<String, Object> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        public void addTerms(LdContextFactory factory, Map<String, Object> termsMap, MixinSource mixinSource,
+                             Object bean, Class<?> mixInClass) {
+            termsMap.putAll(terms);
+        }
+    }
+
+    private static class ContextProviderTerms implements TermSource {
+
+        @Override
+        public void addTerms(LdContextFactory factory, Map<String, Object> termsMap, MixinSource mixinSource,
+                             Object bean, Class<?> mixInClass) {
+            Object nestedContextProviderFromMixin = factory.getNestedContextProviderFromMixin(mixinSource, bean,
+                    mixInClass);
+            if (nestedContextProviderFromMixin != null) {
+                termsMap.putAll(factory.getTerms(mixinSource, nestedContextProviderFromMixin, null));
+            }
+        }
+    }
+
+    private static class EnumFieldTerms implements TermSource {
+        private final Field field;
+        private final Expose expose;
+
+        EnumFieldTerms(Field field, Expose expose) {
+            this.field = field;
+            this.expose = expose;
+        }
+
+        @Override
+        public void addTerms(LdContextFactory factory, Map<String, Object> termsMap, MixinSource mixinSource,
+                             Object bean, Class<?> mixInClass) throws Exception {
+            factory.addEnumTerms(termsMap, expose, field.getName(), (Enum) field.get(bean));
+        }
+    }
+
+    private static class EnumPropertyTerms implements TermSource {
+        private final PropertyAccessor propertyAccessor;
+        private final Expose expose;
+
+        EnumPropertyTerms(PropertyAccessor propertyAccessor, Expose expose) {
+            this.propertyAccessor = propertyAccessor;
+            this.expose = expose;
+        }
+
+        @Override
+        public void addTerms(LdContextFactory factory, Map<String, Object> termsMap, MixinSource mixinSource,
+                             Object bean, Class<?> mixInClass) throws Exception {
+            factory.addEnumTerms(termsMap, expose, propertyAccessor.getName(),
+                    (Enum) propertyAccessor.getValue(bean));
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds json-ld contexts which are referenced as external contexts by their IRI, rather than being written inline.
+ * The id of a context consists of a name and a digest of the context, so that a context IRI always identifies the
+ * same context and clients may cache context documents indefinitely.
+ * <p>
+ * The registry holds a limited number of contexts. Once the limit is reached, further contexts are not registered and
+ * must be written inline.
+ * </p>
+ */
+public class LdContextRegistry {
+
+    public static final String DEFAULT_BASE_IRI = "/contexts/";
+
+    public static final int DEFAULT_MAX_CONTEXTS = 1000;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String baseIri;
+    private final int maxContexts;
+
+    private final ConcurrentMap<String, String> idsByContext = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, String> contextsById = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Creates registry whose contexts are served below {@link #DEFAULT_BASE_IRI}.
+     */
+    public LdContextRegistry() {
+        this(DEFAULT_BASE_IRI);
+    }
+
+    /**
+     * Creates registry which holds up to {@link #DEFAULT_MAX_CONTEXTS} contexts.
+     *
+     * @param baseIri below which the contexts are served, the context id is appended to it
+     */
+    public LdContextRegistry(String baseIri) {
+        this(baseIri, DEFAULT_MAX_CONTEXTS);
+    }
+
+    /**
+     * Creates registry.
+     *
+     * @param baseIri     below which the contexts are served, the context id is appended to it
+     * @param maxContexts number of contexts the registry holds at most
+     */
+    public LdContextRegistry(String baseIri, int maxContexts) {
+        this.baseIri = baseIri;
+        this.maxContexts = maxContexts;
+    }
+
+    /**
+     * Registers context and returns its IRI.
+     *
+     * @param name    used to build a readable id, e.g. the type of the bean having the context
+     * @param context encoded json object of the context, without the surrounding @context attribute
+     * @return IRI of the context document or null if the registry is full, so that the context must be written inline
+     */
+    public String register(String name, String context) {
+        String id = idsByContext.get(context);
+        if (id == null) {
+            if (contextsById.size() >= maxContexts) {
+                return null;
+            }
+            id = toIdName(name) + "-" + digest(context);
+            contextsById.putIfAbsent(id, context);
+            idsByContext.putIfAbsent(context, id);
+        }
+        return getBaseIri() + id;
+    }
+
+    /**
+     * Gets context document for the given context id.
+     *
+     * @param id of context
+     * @return json-ld document having the registered context as @context or null if the id is unknown
+     */
+    public String getContextDocument(String id) {
+        final String context = contextsById.get(id);
+        final String ret;
+        if (context == null) {
+            ret = null;
+        } else {
+            ret = "{\"" + JsonLdKeywords.AT_CONTEXT + "\":" + context + "}";
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the digest part of a context id, suitable as entity tag.
+     *
+     * @param id of context
+     * @return digest
+     */
+    public String getDigest(String id) {
+        return id.substring(id.lastIndexOf('-') + 1);
+    }
+
+    /**
+     * Gets the IRI to which context ids are appended. Subclasses may determine it per request.
+     *
+     * @return base IRI
+     */
+    public String getBaseIri() {
+        return baseIri;
+    }
+
+    private static String toIdName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.') {
+                sb.append(c);
+            } else {
+                sb.append('_');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String digest(String context) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(context.getBytes("UTF-8"));
+            // first 8 bytes are sufficient to tell contexts apart
+            final char[] hex = new char[16];
+            for (int i = 0; i < 8; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("failed to create digest of context", e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("failed to create digest of context", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Stack of the contexts in scope while a bean graph is serialized. One stack is kept per serializer provider and
+ * reused for all beans of a serialization. A bean whose context is covered by the enclosing context pushes the
+ * enclosing context again, so that nested beans in the same vocab do not allocate.
+ */
+public class LdContextStack {
+
+    private final MixinSource mixinSource;
+
+    private LdContext[] contexts = new LdContext[8];
+
+    private int size;
+
+    LdContextStack(MixinSource mixinSource) {
+        this.mixinSource = mixinSource;
+    }
+
+    /**
+     * Gets the context stack of the current serialization.
+     *
+     * @param serializerProvider of the current serialization
+     * @return context stack, null if no hydra bean has been serialized yet
+     */
+    public static LdContextStack get(SerializerProvider serializerProvider) {
+        return (LdContextStack) serializerProvider.getAttribute(JacksonHydraSerializer.KEY_LD_CONTEXT);
+    }
+
+    static LdContextStack getOrCreate(SerializerProvider serializerProvider) {
+        LdContextStack ret = get(serializerProvider);
+        if (ret == null) {
+            ret = new LdContextStack(new JacksonMixinSource(serializerProvider.getConfig()));
+            serializerProvider.setAttribute(JacksonHydraSerializer.KEY_LD_CONTEXT, ret);
+        }
+        return ret;
+    }
+
+    MixinSource getMixinSource() {
+        return mixinSource;
+    }
+
+    /**
+     * Gets the context in scope.
+     *
+     * @return current context, null if the stack is empty
+     */
+    public LdContext peek() {
+        return size == 0 ? null : contexts[size - 1];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(LdContext context) {
+        if (size == contexts.length) {
+            LdContext[] grown = new LdContext[size * 2];
+            System.arraycopy(contexts, 0, grown, 0, size);
+            contexts = grown;
+        }
+        contexts[size++] = context;
+    }
+
+    void pop() {
+        if (size > 0) {
+            contexts[--size] = null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import org.apache.commons.lang3.ObjectUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
+/**
+ * Writes the @context attribute of a bean. An interned context is encoded to json once, the encoding is kept on the
+ * context and written as raw value to json text generators. Other generators and contexts which depend on bean
+ * values get the context object.
+ */
+class LdContextWriter {
+
+    private static final SerializedString AT_CONTEXT = new SerializedString(JsonLdKeywords.AT_CONTEXT);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Json encoding of an interned context, together with the vocab and codec it was encoded with.
+     */
+    static final class Encoding {
+        final String vocab;
+        /**
+         * Codec which encoded the context. Weak, since interned contexts outlive the object mappers which write them.
+         */
+        final Reference<ObjectCodec> codec;
+        /**
+         * True if all term definitions are Strings, so that the encoding does not depend on the codec.
+         */
+        final boolean codecIndependent;
+        final SerializedString value;
+
+        Encoding(String vocab, ObjectCodec codec, boolean codecIndependent, SerializedString value) {
+            this.vocab = vocab;
+            this.codec = new WeakReference<ObjectCodec>(codec);
+            this.codecIndependent = codecIndependent;
+            this.value = value;
+        }
+
+        boolean matches(String vocab, ObjectCodec codec) {
+            return ObjectUtils.equals(this.vocab, vocab) && (codecIndependent || this.codec.get() == codec);
+        }
+    }
+
+    /**
+     * Writes the @context attribute.
+     *
+     * @param jgen    to write to
+     * @param context to write
+     * @param vocab   to write, null if the vocab should not be written
+     * @throws IOException if writing fails
+     */
+    void writeContext(JsonGenerator jgen, LdContext context, String vocab) throws IOException {
+        jgen.writeFieldName(AT_CONTEXT);
+        if (!context.isInterned() || jgen.getPrettyPrinter() != null || !(jgen instanceof JsonGeneratorImpl)) {
+            // raw values would bypass the pretty printer, and generators which do not write json text,
+            // such as the TokenBuffer used by ObjectMapper.valueToTree, cannot write raw values at all
+            writeContextObject(jgen, vocab, context.terms);
+            return;
+        }
+        final SerializedString encodedContext = getEncodedContext(jgen.getCodec(), context, vocab);
+        // an empty raw value makes the generator write the separator and accept the next field name,
+        // then the pre-encoded context follows
+        jgen.writeRawValue("", 0, 0);
+        jgen.writeRaw(encodedContext);
+    }
+
+    /**
+     * Gets the json encoding of a context object. The encoding of an interned context is computed once per vocab
+     * and codec.
+     *
+     * @param codec   to encode non-String term definitions
+     * @param context to encode
+     * @param vocab   to write, null if the vocab should not be written
+     * @return encoded context object
+     * @throws IOException if encoding fails
+     */
+    SerializedString getEncodedContext(ObjectCodec codec, LdContext context, String vocab) throws IOException {
+        if (!context.isInterned()) {
+            return encodeContext(codec, vocab, context.terms);
+        }
+        Encoding encoding = context.encoding;
+        if (encoding == null || !encoding.matches(vocab, codec)) {
+            encoding = new Encoding(vocab, codec, hasOnlyStringTerms(context.terms),
+                    encodeContext(codec, vocab, context.terms));
+            context.encoding = encoding;
+        }
+        return encoding.value;
+    }
+
+    private static boolean hasOnlyStringTerms(Map<String, Object> terms) {
+        for (Object value : terms.values()) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SerializedString encodeContext(ObjectCodec codec, String vocab, Map<String, Object> terms) throws
+            IOException {
+        final StringWriter writer = new StringWriter();
+        final JsonFactory jsonFactory = codec == null ? JSON_FACTORY : codec.getFactory();
+        final JsonGenerator generator = jsonFactory.createGenerator(writer);
+        generator.setCodec(codec);
+        writeContextObject(generator, vocab, terms);
+        generator.close();
+        return new SerializedString(writer.toString());
+    }
+
+    private void writeContextObject(JsonGenerator jgen, String vocab, Map<String, Object> terms) throws
+            IOException {
+        jgen.writeStartObject();
+        if (vocab != null) {
+            jgen.writeStringField(JsonLdKeywords.AT_VOCAB, vocab);
+        }
+        for (Map.Entry<String, Object> termEntry : terms.entrySet()) {
+            if (termEntry.getValue() instanceof String) {
+                jgen.writeStringField(termEntry.getKey(), termEntry.getValue()
+                        .toString());
+            } else {
+                jgen.writeObjectField(termEntry.getKey(), termEntry.getValue());
+            }
+        }
+        jgen.writeEndObject();
+    }
+}
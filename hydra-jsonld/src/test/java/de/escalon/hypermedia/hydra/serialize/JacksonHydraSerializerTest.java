@@ -12,6 +12,7 @@ package de.escalon.hypermedia.hydra.serialize;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationConfig;
@@ -117,6 +118,20 @@ public class JacksonHydraSerializerTest {
                 , w.toString());
     }
 
+    @Test
+    public void testRendersContextIntoTree() throws Exception {
+        // valueToTree serializes to a TokenBuffer, which does not support raw values
+        JsonNode tree = mapper.valueToTree(new Person());
+        assertEquals("http://xmlns.com/foaf/0.1/", tree.get("@context")
+                .get("@vocab")
+                .asText());
+        assertEquals("Dietrich Schulten", tree.get("name")
+                .asText());
+
+        mapper.writeValue(w, new Person());
+        assertEquals(mapper.readTree(w.toString()), tree);
+    }
+
     @Test
     public void testAppliesPackageDefinedVocab() throws IOException {
         mapper.writeValue(w, new de.escalon.hypermedia.hydra.beans.withvocab.Person("1964-08-08", "Schulten"));
@@ -354,4 +369,27 @@ public class JacksonHydraSerializerTest {
     }
 
 
+    @Test
+    public void testWritesSameContextOnRepeatedSerialization() throws IOException {
+        mapper.writeValue(w, new Offer());
+        final String first = w.toString();
+        StringWriter second = new StringWriter();
+        mapper.writeValue(second, new Offer());
+        assertEquals(first, second.toString());
+    }
+
+    @Test
+    public void testWritesContextWithPrettyPrinter() throws IOException {
+        mapper.writerWithDefaultPrettyPrinter()
+                .writeValue(w, new Person());
+        final String newline = System.getProperty("line.separator");
+        assertEquals("{" + newline +
+                "  \"@context\" : {" + newline +
+                "    \"@vocab\" : \"http://xmlns.com/foaf/0.1/\"" + newline +
+                "  }," + newline +
+                "  \"@type\" : \"Person\"," + newline +
+                "  \"name\" : \"Dietrich Schulten\"" + newline +
+                "}", w.toString());
+    }
+
 }
\ No newline at end of file
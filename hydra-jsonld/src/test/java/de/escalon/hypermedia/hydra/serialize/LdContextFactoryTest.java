@@ -0,0 +1,66 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Term;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LdContextFactoryTest {
+
+    private LdContextFactory ldContextFactory = new LdContextFactory();
+
+    private MixinSource mixinSource = new MixinSource() {
+        @Override
+        public Class<?> findMixInClassFor(Class<?> clazz) {
+            return null;
+        }
+    };
+
+    @Term(define = "gr", as = "http://purl.org/goodrelations/v1#")
+    public static class Product {
+        @Expose("gr:name")
+        public String name = "Widget";
+    }
+
+    public enum BusinessFunction {
+        @Expose("gr:LeaseOut")
+        RENT,
+        @Expose("gr:Sell")
+        FOR_SALE
+    }
+
+    public static class Offer {
+        public BusinessFunction businessFunction;
+
+        public Offer(BusinessFunction businessFunction) {
+            this.businessFunction = businessFunction;
+        }
+    }
+
+    @Test
+    public void reusesTermsWhichDoNotDependOnBeanValue() {
+        Map<String, Object> terms = ldContextFactory.getTerms(mixinSource, new Product(), null);
+        Map<String, Object> otherTerms = ldContextFactory.getTerms(mixinSource, new Product(), null);
+
+        assertEquals("http://purl.org/goodrelations/v1#", terms.get("gr"));
+        assertEquals("gr:name", terms.get("name"));
+        assertSame(terms, otherTerms);
+    }
+
+    @Test
+    public void resolvesEnumTermsFromCurrentValue() {
+        Map<String, Object> rentTerms = ldContextFactory.getTerms(mixinSource, new Offer(BusinessFunction.RENT),
+                null);
+        Map<String, Object> sellTerms = ldContextFactory.getTerms(mixinSource, new Offer(BusinessFunction.FOR_SALE),
+                null);
+        Map<String, Object> noTerms = ldContextFactory.getTerms(mixinSource, new Offer(null), null);
+
+        assertEquals("gr:LeaseOut", rentTerms.get("RENT"));
+        assertFalse(rentTerms.containsKey("FOR_SALE"));
+        assertEquals("gr:Sell", sellTerms.get("FOR_SALE"));
+        assertTrue(noTerms.isEmpty());
+    }
+}
@@ -9,6 +9,8 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -61,4 +63,35 @@ public class LdContextTest {
 
         assertTrue(childContext.contains(contextWithSomeTerms));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void containsVocabAndTermsWithoutContext() {
+        LdContext childContext = new LdContext(contextWithAllTerms, null, Collections.<String, Object>emptyMap());
+
+        assertTrue(childContext.contains("http://schema.org", someTerms));
+        assertFalse(childContext.contains("http://purl.org/goodrelations/v1#", someTerms));
+    }
+
+    @Test
+    public void internedContextsAnswerContainmentAndNestingOnce() {
+        LdContext parent = LdContext.interned("http://schema.org", Collections.unmodifiableMap(allTerms));
+        LdContext child = LdContext.interned("http://purl.org/goodrelations/v1#",
+                Collections.unmodifiableMap(someTerms));
+
+        assertFalse(parent.contains(child));
+        assertFalse(parent.contains(child));
+        LdContext nested = parent.nest(child);
+        assertSame(nested, parent.nest(child));
+        assertTrue(nested.contains(child));
+        assertTrue(nested.isInterned());
+    }
+
+    @Test
+    public void doesNotInternNestedContextsOfUninternedContexts() {
+        LdContext child = LdContext.interned("http://schema.org", Collections.unmodifiableMap(someTerms));
+
+        assertNotSame(contextWithAllTerms.nest(child), contextWithAllTerms.nest(child));
+        assertFalse(contextWithAllTerms.nest(child)
+                .isInterned());
+    }
+}
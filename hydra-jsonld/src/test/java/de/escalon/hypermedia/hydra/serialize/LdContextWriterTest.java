@@ -0,0 +1,46 @@
+package de.escalon.hypermedia.hydra.serialize;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class LdContextWriterTest {
+
+    private final LdContextWriter ldContextWriter = new LdContextWriter();
+
+    @Test
+    public void encodesInternedContextOnce() throws Exception {
+        LdContext context = LdContext.interned("http://schema.org/", Collections.<String, Object>singletonMap("hydra",
+                "http://www.w3.org/ns/hydra/core#"));
+
+        SerializedString encoded = ldContextWriter.getEncodedContext(new ObjectMapper(), context, null);
+
+        assertEquals("{\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}", encoded.getValue());
+        assertSame(encoded, ldContextWriter.getEncodedContext(new ObjectMapper(), context, null));
+        assertEquals("{\"@vocab\":\"http://schema.org/\",\"hydra\":\"http://www.w3.org/ns/hydra/core#\"}",
+                ldContextWriter.getEncodedContext(new ObjectMapper(), context, context.vocab)
+                        .getValue());
+    }
+
+    @Test
+    public void encodesObjectTermsPerCodec() throws Exception {
+        Map<String, Object> terms = new LinkedHashMap<String, Object>();
+        terms.put("knows", Collections.singletonMap("@type", "@id"));
+        LdContext context = LdContext.interned("http://schema.org/", Collections.unmodifiableMap(terms));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        SerializedString encoded = ldContextWriter.getEncodedContext(objectMapper, context, null);
+
+        assertEquals("{\"knows\":{\"@type\":\"@id\"}}", encoded.getValue());
+        assertSame(encoded, ldContextWriter.getEncodedContext(objectMapper, context, null));
+        assertNotSame(encoded, ldContextWriter.getEncodedContext(new ObjectMapper(), context, null));
+    }
+}
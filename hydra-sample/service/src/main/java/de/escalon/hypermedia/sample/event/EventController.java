@@ -52,10 +52,10 @@ public class EventController {
         List<Event> matches = new ArrayList<Event>();
         for (Event event : events) {
             if (name == null || event.workPerformed.getContent().name.equals(name)) {
-                addAffordances(event);
                 matches.add(event);
             }
         }
+        addAffordances(matches);
         Resources<Event> eventResources = new Resources<Event>(matches);
 
         eventResources.add(AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(EventController.class)
@@ -90,6 +90,28 @@ public class EventController {
                 .withRel("review"));
     }
 
+    private void addAffordances(List<Event> events) {
+        List<Object[]> eventArguments = new ArrayList<Object[]>(events.size());
+        List<Object[]> eventIdArguments = new ArrayList<Object[]>(events.size());
+        List<Object[]> reviewArguments = new ArrayList<Object[]>(events.size());
+        for (Event event : events) {
+            eventArguments.add(new Object[]{event.id, event});
+            eventIdArguments.add(new Object[]{event.id});
+            reviewArguments.add(new Object[]{event.id, new Review(null, new Rating(3))});
+        }
+        List<AffordanceBuilder> updates = EventControllerLinks.UPDATE_EVENT.linksTo(eventArguments);
+        List<AffordanceBuilder> deletes = EventControllerLinks.DELETE_EVENT.linksTo(eventIdArguments);
+        List<AffordanceBuilder> reviews = ReviewControllerLinks.ADD_REVIEW.linksTo(reviewArguments);
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            event.add(updates.get(i)
+                    .and(deletes.get(i))
+                    .withSelfRel());
+            event.workPerformed.add(reviews.get(i)
+                    .withRel("review"));
+        }
+    }
+
     @RequestMapping(value = "/{eventId}", method = RequestMethod.PUT)
     public ResponseEntity<Void> updateEvent(@PathVariable int eventId, @RequestBody Event event) {
         eventBackend.updateEvent(eventId, event.getEventStatus());
@@ -109,8 +131,8 @@ public class EventController {
                 event.getEventStatus());
         int eventId = eventBackend.addEvent(eventModel);
         HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.setLocation(AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(this.getClass())
-                .getEvent(eventId)).toUri());
+        httpHeaders.setLocation(EventControllerLinks.getEvent(eventId)
+                .toUri());
         return new ResponseEntity<Void>(httpHeaders, HttpStatus.CREATED);
     }
 
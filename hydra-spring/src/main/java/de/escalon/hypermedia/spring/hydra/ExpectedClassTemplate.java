@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import de.escalon.hypermedia.ClassCache;
+import de.escalon.hypermedia.ClassMetadata;
+import de.escalon.hypermedia.DataType;
+import de.escalon.hypermedia.PropertyAccessor;
+import de.escalon.hypermedia.action.ActionInputParameter;
+import de.escalon.hypermedia.action.ActionInputShape;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.serialize.JsonLdKeywords;
+import de.escalon.hypermedia.hydra.serialize.LdContextFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precompiled hydra:expects description of a request body type. The structure of the description only depends on
+ * the request body type and the current vocab, so it is introspected once and cached. Only the values which depend
+ * on the request body of the sample invocation, i.e. defaultValue, are looked up when the template is written.
+ */
+class ExpectedClassTemplate {
+
+    /**
+     * Templates of a request body type by current vocab.
+     */
+    private static final ClassCache<ConcurrentMap<String, ExpectedClassTemplate>> templates =
+            new ClassCache<ConcurrentMap<String, ExpectedClassTemplate>>() {
+                @Override
+                protected ConcurrentMap<String, ExpectedClassTemplate> compute(Class<?> type) {
+                    return new ConcurrentHashMap<String, ExpectedClassTemplate>(4);
+                }
+            };
+
+    /**
+     * Key for the absence of a current vocab, the templates map does not allow null keys.
+     */
+    private static final String NO_VOCAB = "";
+
+    private static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+
+    private final String typeName;
+    private final List<SupportedProperty> supportedProperties;
+
+    private ExpectedClassTemplate(Class<?> bodyType, Names names) {
+        final Expose classExpose = bodyType.getAnnotation(Expose.class);
+        this.typeName = classExpose != null ? classExpose.value() : bodyType.getSimpleName();
+        this.supportedProperties = getSupportedProperties(bodyType, names);
+    }
+
+    /**
+     * Gets template for request body type.
+     *
+     * @param bodyType     of request body
+     * @param currentVocab vocab in scope where the template is written, determines the prefixes of schema.org and
+     *                     rdfs terms
+     * @return template, never null
+     */
+    static ExpectedClassTemplate forRequestBody(Class<?> bodyType, @Nullable String currentVocab) {
+        ConcurrentMap<String, ExpectedClassTemplate> templatesByVocab = templates.get(bodyType);
+        String key = currentVocab == null ? NO_VOCAB : currentVocab;
+        ExpectedClassTemplate ret = templatesByVocab.get(key);
+        if (ret == null) {
+            ret = new ExpectedClassTemplate(bodyType, new Names(currentVocab));
+            ExpectedClassTemplate existing = templatesByVocab.putIfAbsent(key, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Writes hydra:expects.
+     *
+     * @param jgen      to write to
+     * @param callValue request body of sample invocation, may be null
+     * @throws IOException
+     */
+    void write(JsonGenerator jgen, @Nullable Object callValue) throws IOException {
+        jgen.writeObjectFieldStart("hydra:expects"); // begin hydra:expects
+        jgen.writeStringField(JsonLdKeywords.AT_TYPE, typeName);
+        jgen.writeArrayFieldStart("hydra:supportedProperty"); // begin hydra:supportedProperty
+        writeSupportedProperties(jgen, supportedProperties, callValue);
+        jgen.writeEndArray(); // end hydra:supportedProperty
+        jgen.writeEndObject(); // end hydra:expects
+    }
+
+    private static List<SupportedProperty> getSupportedProperties(Class<?> beanType, Names names) {
+        // TODO support Option provider by other method args?
+        // TODO collection and map
+        List<SupportedProperty> ret = new ArrayList<SupportedProperty>();
+        for (PropertyAccessor propertyAccessor : ClassMetadata.forClass(beanType)
+                .getPropertyAccessors()) {
+            if (propertyAccessor.isWritable()) {
+                ret.add(new SupportedProperty(propertyAccessor, names));
+            }
+        }
+        return Collections.unmodifiableList(ret);
+    }
+
+    private static void writeSupportedProperties(JsonGenerator jgen, List<SupportedProperty> supportedProperties,
+                                                 Object currentCallValue) throws IOException {
+        for (SupportedProperty supportedProperty : supportedProperties) {
+            Object propertyValue = currentCallValue == null ? null :
+                    supportedProperty.propertyAccessor.getValue(currentCallValue);
+            if (supportedProperty.nestedProperties == null) {
+                supportedProperty.writeValueSpecification(jgen, propertyValue);
+            } else {
+                supportedProperty.writeRange(jgen, propertyValue);
+            }
+        }
+    }
+
+    private static String getExposedOrSimpleName(Class<?> type) {
+        Expose expose = AnnotationUtils.getAnnotation(type, Expose.class);
+        String ret;
+        if (expose != null) {
+            ret = expose.value();
+        } else {
+            ret = type.getSimpleName();
+        }
+        return ret;
+    }
+
+    /**
+     * Gets property or class name in the current context, either without prefix if the current vocab is the given
+     * vocabulary, or prefixed otherwise.
+     *
+     * @param currentVocab              to determine the current vocab
+     * @param propertyOrClassName       name to contextualize
+     * @param vocabulary                to which the given property belongs
+     * @param vocabularyPrefixWithColon to use if the current vocab does not match the given vocabulary to which the
+     *                                  name belongs, should end with colon
+     * @return property or class name
+     */
+    private static String getPropertyOrClassNameInVocab(@Nullable String currentVocab, String propertyOrClassName, String
+            vocabulary, String vocabularyPrefixWithColon) {
+        Assert.notNull(vocabulary);
+        String ret;
+        if (vocabulary.equals(currentVocab)) {
+            ret = propertyOrClassName;
+        } else {
+            ret = vocabularyPrefixWithColon + propertyOrClassName;
+        }
+        return ret;
+    }
+
+    private static void writeScalarValue(JsonGenerator jgen, Object possibleValue,
+                                         Class<?> valueType) throws IOException {
+        if (Number.class.isAssignableFrom(valueType)) {
+            jgen.writeNumber(possibleValue.toString());
+        } else if (Boolean.class.isAssignableFrom(valueType)) {
+            jgen.writeBoolean((Boolean) possibleValue);
+        } else if (Enum.class.isAssignableFrom(valueType)) {
+            jgen.writeString(((Enum) possibleValue).name());
+        } else {
+            jgen.writeString(possibleValue.toString());
+        }
+    }
+
+    /**
+     * Attribute names in the current vocab.
+     */
+    private static class Names {
+        final String propertyValueSpecification;
+        final String rangeIncludes;
+        final String subClassOf;
+        final String multipleValues;
+        final String defaultValue;
+        final Map<String, String> constraints = new HashMap<String, String>();
+
+        Names(@Nullable String currentVocab) {
+            propertyValueSpecification = schemaOrg(currentVocab, "PropertyValueSpecification");
+            rangeIncludes = schemaOrg(currentVocab, "rangeIncludes");
+            subClassOf = getPropertyOrClassNameInVocab(currentVocab, "subClassOf", RDFS, "rdfs:");
+            multipleValues = schemaOrg(currentVocab, "multipleValues");
+            defaultValue = schemaOrg(currentVocab, "defaultValue");
+            for (String keyToAppendValue : Arrays.asList(ActionInputParameter.MAX, ActionInputParameter.MIN,
+                    ActionInputParameter.STEP)) {
+                constraints.put(keyToAppendValue, schemaOrg(currentVocab, keyToAppendValue + "Value"));
+            }
+            for (String keyToPrependValue : Arrays.asList(ActionInputParameter.MAX_LENGTH,
+                    ActionInputParameter.MIN_LENGTH, ActionInputParameter.PATTERN)) {
+                constraints.put(keyToPrependValue, schemaOrg(currentVocab, "value" + StringUtils.capitalize
+                        (keyToPrependValue)));
+            }
+        }
+
+        private static String schemaOrg(String currentVocab, String propertyOrClassName) {
+            return getPropertyOrClassNameInVocab(currentVocab, propertyOrClassName, LdContextFactory.HTTP_SCHEMA_ORG,
+                    "schema:");
+        }
+    }
+
+    /**
+     * Input constraint with its attribute name in the current vocab.
+     */
+    private static class Constraint {
+        final String name;
+        final String value;
+        final boolean number;
+
+        Constraint(String name, Object value, boolean number) {
+            this.name = name;
+            this.value = value.toString();
+            this.number = number;
+        }
+    }
+
+    /**
+     * Supported property of a request body type, either a scalar property described by a value specification or a
+     * bean property with nested supported properties.
+     */
+    private static class SupportedProperty {
+        final PropertyAccessor propertyAccessor;
+        final Names names;
+        final String propertyName;
+
+        // scalar properties
+        final boolean arrayOrCollection;
+        final Class<?> parameterType;
+        final Class<?> nestedParameterType;
+        final List<Constraint> constraints;
+
+        // bean properties
+        final String subClass;
+        final List<SupportedProperty> nestedProperties;
+
+        SupportedProperty(PropertyAccessor propertyAccessor, Names names) {
+            this.propertyAccessor = propertyAccessor;
+            this.names = names;
+            this.propertyName = getWritableExposedPropertyOrPropertyName(propertyAccessor);
+            final Class<?> propertyType = propertyAccessor.getPropertyType();
+            if (DataType.isSingleValueType(propertyType)) {
+                ActionInputShape propertySetterShape = new ActionInputShape(
+                        new MethodParameter(propertyAccessor.getWriteMethod(), 0), null);
+                this.arrayOrCollection = propertySetterShape.isArrayOrCollection();
+                this.parameterType = propertySetterShape.getParameterType();
+                this.nestedParameterType = propertySetterShape.getNestedParameterType();
+                this.constraints = getConstraints(propertySetterShape.getInputConstraints(), names);
+                this.subClass = null;
+                this.nestedProperties = null;
+            } else {
+                this.arrayOrCollection = false;
+                this.parameterType = null;
+                this.nestedParameterType = null;
+                this.constraints = null;
+                this.subClass = getExposedOrSimpleName(propertyType);
+                this.nestedProperties = getSupportedProperties(propertyType, names);
+            }
+        }
+
+        private static List<Constraint> getConstraints(Map<String, Object> inputConstraints, Names names) {
+            List<Constraint> ret = new ArrayList<Constraint>();
+            for (String keyToAppendValue : Arrays.asList(ActionInputParameter.MAX, ActionInputParameter.MIN,
+                    ActionInputParameter.STEP)) {
+                final Object constraint = inputConstraints.get(keyToAppendValue);
+                if (constraint != null) {
+                    ret.add(new Constraint(names.constraints.get(keyToAppendValue), constraint, true));
+                }
+            }
+            for (String keyToPrependValue : Arrays.asList(ActionInputParameter.MAX_LENGTH,
+                    ActionInputParameter.MIN_LENGTH, ActionInputParameter.PATTERN)) {
+                final Object constraint = inputConstraints.get(keyToPrependValue);
+                if (constraint != null) {
+                    ret.add(new Constraint(names.constraints.get(keyToPrependValue), constraint,
+                            !ActionInputParameter.PATTERN.equals(keyToPrependValue)));
+                }
+            }
+            return Collections.unmodifiableList(ret);
+        }
+
+        /**
+         * Gets exposed property or parameter name for properties with an appropriate setter (=write) method.
+         *
+         * @param propertyAccessor for exposure
+         * @return property name
+         */
+        private static String getWritableExposedPropertyOrPropertyName(PropertyAccessor propertyAccessor) {
+            final Expose expose = propertyAccessor.getWriteMethod()
+                    .getAnnotation(Expose.class);
+            String propertyName;
+            if (expose != null) {
+                propertyName = expose.value();
+            } else {
+                propertyName = propertyAccessor.getName();
+            }
+            return propertyName;
+        }
+
+        void writeValueSpecification(JsonGenerator jgen, Object propertyValue) throws IOException {
+            jgen.writeStartObject();
+            if (propertyValue != null || !constraints.isEmpty()) {
+                jgen.writeStringField(JsonLdKeywords.AT_TYPE, names.propertyValueSpecification);
+            }
+            // TODO: the property name must be a valid URI - need to check context for terms?
+            jgen.writeStringField("hydra:property", propertyName);
+
+            //  valueRequired (hard to say, using @Access on Event is for all update requests - or make
+            //     specific request beans for different purposes rather than always passing an instance of e.g.
+            //     Event?)
+            //  (/) defaultValue (pre-filled value, e.g. list of selected items for option)
+            //  valueName (for iri templates only)
+            //  (/) readonlyValue (true for final public field or absence of setter, send fixed value like hidden
+            //     field?) -> use hydra:readable, hydra:writable
+            //  (/) multipleValues
+            //  (/) valueMinLength
+            //  (/) valueMaxLength
+            //  (/) valuePattern
+            //  minValue (DateTime support)
+            //  maxValue (DateTime support)
+            //  (/) stepValue
+            if (arrayOrCollection) {
+                jgen.writeBooleanField(names.multipleValues, true);
+            }
+            if (propertyValue != null) {
+                if (arrayOrCollection) {
+                    Object[] callValues = parameterType.isArray() ? (Object[]) propertyValue :
+                            ((Collection<?>) propertyValue).toArray();
+                    Class<?> componentType = callValues.getClass()
+                            .getComponentType();
+                    // only write defaultValue for array of scalars
+                    if (DataType.isSingleValueType(componentType)) {
+                        jgen.writeFieldName(names.defaultValue);
+                        jgen.writeStartArray();
+                        for (Object callValue : callValues) {
+                            writeScalarValue(jgen, callValue, componentType);
+                        }
+                        jgen.writeEndArray();
+                    }
+                } else {
+                    jgen.writeFieldName(names.defaultValue);
+                    writeScalarValue(jgen, propertyValue, nestedParameterType);
+                }
+            }
+            for (Constraint constraint : constraints) {
+                jgen.writeFieldName(constraint.name);
+                if (constraint.number) {
+                    jgen.writeNumber(constraint.value);
+                } else {
+                    jgen.writeString(constraint.value);
+                }
+            }
+            jgen.writeEndObject();
+        }
+
+        void writeRange(JsonGenerator jgen, Object propertyValue) throws IOException {
+            jgen.writeStartObject();
+            jgen.writeStringField("hydra:property", propertyName);
+            // TODO: is the property required -> for bean props we need the Access annotation to express that
+            jgen.writeObjectFieldStart(names.rangeIncludes);
+            jgen.writeStringField(names.subClassOf, subClass);
+            jgen.writeArrayFieldStart("hydra:supportedProperty");
+            writeSupportedProperties(jgen, nestedProperties, propertyValue);
+            jgen.writeEndArray();
+            jgen.writeEndObject();
+            jgen.writeEndObject();
+        }
+    }
+}
@@ -13,6 +13,7 @@ package de.escalon.hypermedia.spring.hydra;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import de.escalon.hypermedia.hydra.serialize.LdContextRegistry;
 import de.escalon.hypermedia.spring.HypermediaTypes;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
@@ -25,10 +26,21 @@ public class HydraMessageConverter extends MappingJackson2HttpMessageConverter {
 
 
     public HydraMessageConverter() {
+        this(null);
+    }
+
+    /**
+     * Creates converter which references the context of top-level beans as external context. The contexts must be
+     * served by an {@link LdContextController} using the same registry, a {@link ServletLdContextRegistry} creates
+     * context IRIs which point to the controller.
+     *
+     * @param ldContextRegistry to register external contexts, null to write contexts inline
+     */
+    public HydraMessageConverter(LdContextRegistry ldContextRegistry) {
         ObjectMapper objectMapper = new ObjectMapper();
         // see https://github.com/json-ld/json-ld.org/issues/76
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        SimpleModule module = new JacksonHydraModule();
+        SimpleModule module = new JacksonHydraModule(ldContextRegistry);
         objectMapper.registerModule(module);
         this.setObjectMapper(objectMapper);
         this.setSupportedMediaTypes(
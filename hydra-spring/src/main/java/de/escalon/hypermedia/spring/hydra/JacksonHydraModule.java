@@ -18,6 +18,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import de.escalon.hypermedia.hydra.serialize.JacksonHydraSerializer;
+import de.escalon.hypermedia.hydra.serialize.LdContextRegistry;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.hateoas.Resources;
@@ -29,12 +30,24 @@ import org.springframework.hateoas.Resources;
  */
 public class JacksonHydraModule extends SimpleModule {
 
+    private final LdContextRegistry ldContextRegistry;
+
     public JacksonHydraModule() {
+        this(null);
+    }
+
+    /**
+     * Creates module which writes the context of top-level beans as external context.
+     *
+     * @param ldContextRegistry to register external contexts, null to write contexts inline
+     */
+    public JacksonHydraModule(LdContextRegistry ldContextRegistry) {
         super("json-hydra-module", new Version(1, 0, 0, null, "de.escalon.hypermedia", "hydra-spring"));
         setMixInAnnotation(ResourceSupport.class, ResourceSupportMixin.class);
         setMixInAnnotation(Resources.class, ResourcesMixin.class);
         setMixInAnnotation(Resource.class, ResourceMixin.class);
         addSerializer(Resource.class, new ResourceSerializer());
+        this.ldContextRegistry = ldContextRegistry;
     }
 
     public void setupModule(SetupContext context) {
@@ -49,7 +62,7 @@ public class JacksonHydraModule extends SimpleModule {
 
                 if (serializer instanceof BeanSerializerBase) {
                     return new JacksonHydraSerializer(
-                            (BeanSerializerBase) serializer);
+                            (BeanSerializerBase) serializer, ldContextRegistry);
                 } else {
                     return serializer;
                 }
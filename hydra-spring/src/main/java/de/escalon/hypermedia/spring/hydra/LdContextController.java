@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.serialize.LdContextRegistry;
+import de.escalon.hypermedia.spring.HypermediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.nio.charset.Charset;
+
+/**
+ * Serves external json-ld contexts registered in a {@link LdContextRegistry}. Since a context id always identifies
+ * the same context, the context documents may be cached indefinitely. A {@link ServletLdContextRegistry} references
+ * the contexts by IRIs which point to this controller.
+ */
+@Controller
+@RequestMapping("/contexts")
+public class LdContextController {
+
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    private static final MediaType APPLICATION_JSONLD_UTF8 = new MediaType(HypermediaTypes.APPLICATION_JSONLD.getType(),
+            HypermediaTypes.APPLICATION_JSONLD.getSubtype(),
+            Charset.forName("UTF-8"));
+
+    private final LdContextRegistry ldContextRegistry;
+
+    public LdContextController(LdContextRegistry ldContextRegistry) {
+        Assert.notNull(ldContextRegistry);
+        this.ldContextRegistry = ldContextRegistry;
+    }
+
+    @RequestMapping(value = "/{contextId:.+}", method = RequestMethod.GET)
+    public ResponseEntity<String> getContext(@PathVariable String contextId,
+                                             @RequestHeader(value = "If-None-Match", required = false) String
+                                                     ifNoneMatch) {
+        final String contextDocument = ldContextRegistry.getContextDocument(contextId);
+        if (contextDocument == null) {
+            return new ResponseEntity<String>(HttpStatus.NOT_FOUND);
+        }
+        final String eTag = "\"" + ldContextRegistry.getDigest(contextId) + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        headers.setCacheControl(CACHE_FOREVER);
+        final ResponseEntity<String> ret;
+        if (matches(ifNoneMatch, eTag)) {
+            ret = new ResponseEntity<String>(headers, HttpStatus.NOT_MODIFIED);
+        } else {
+            headers.setContentType(APPLICATION_JSONLD_UTF8);
+            ret = new ResponseEntity<String>(contextDocument, headers, HttpStatus.OK);
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if an If-None-Match header matches the entity tag. The header may list several entity tags, weak tags
+     * match if their opaque tag is the same.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || eTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import de.escalon.hypermedia.hydra.serialize.LdContextRegistry;
+import de.escalon.hypermedia.spring.AffordanceBuilder;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Registry whose context IRIs point to the {@link LdContextController} of the current request, so that they honor
+ * the mapping of the controller, the context path and servlet mapping of the application and forwarded headers. The
+ * base IRI is determined like the base uri of an {@link AffordanceBuilder}. Outside of a request, contexts are
+ * referenced below {@link #DEFAULT_BASE_IRI}.
+ */
+public class ServletLdContextRegistry extends LdContextRegistry {
+
+    /**
+     * Creates registry which holds up to {@link #DEFAULT_MAX_CONTEXTS} contexts.
+     */
+    public ServletLdContextRegistry() {
+        super();
+    }
+
+    /**
+     * Creates registry.
+     *
+     * @param maxContexts number of contexts the registry holds at most
+     */
+    public ServletLdContextRegistry(int maxContexts) {
+        super(DEFAULT_BASE_IRI, maxContexts);
+    }
+
+    @Override
+    public String getBaseIri() {
+        final String ret;
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            ret = super.getBaseIri();
+        } else {
+            ret = AffordanceBuilder.linkTo(LdContextController.class)
+                    .withSelfRel()
+                    .getHref() + "/";
+        }
+        return ret;
+    }
+}
@@ -10,13 +10,12 @@
 
 package de.escalon.hypermedia.spring.uber;
 
+import de.escalon.hypermedia.ClassMetadata;
+import de.escalon.hypermedia.PropertyAccessor;
 import org.springframework.hateoas.*;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -90,14 +89,14 @@ public class UberUtils {
 					}
 				}
 			} else {
-				PropertyDescriptor[] propertyDescriptors = getPropertyDescriptors(object);// BeanUtils.getPropertyDescriptors(bean.getClass());
-				for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-					String name = propertyDescriptor.getName();
+				for (PropertyAccessor propertyAccessor : ClassMetadata.forClass(object.getClass())
+						.getPropertyAccessors()) {
+					String name = propertyAccessor.getName();
 					if (filtered.contains(name)) {
 						continue;
 					}
 					UberNode propertyNode = new UberNode();
-					Object content = propertyDescriptor.getReadMethod().invoke(object);
+					Object content = propertyAccessor.getValue(object);
 
 					Object value = getContentAsScalarValue(content);
 					propertyNode.setName(name);
@@ -117,14 +116,6 @@ public class UberUtils {
 
 	}
 
-	private static PropertyDescriptor[] getPropertyDescriptors(Object bean) {
-		try {
-			return Introspector.getBeanInfo(bean.getClass()).getPropertyDescriptors();
-		} catch (IntrospectionException e) {
-			throw new RuntimeException("failed to get property descriptors of bean " + bean, e);
-		}
-	}
-
 	private static Object getContentAsScalarValue(Object content) {
 		Object value = null;
 
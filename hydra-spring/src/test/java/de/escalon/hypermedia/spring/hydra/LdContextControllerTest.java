@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.hydra;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.escalon.hypermedia.hydra.mapping.Expose;
+import de.escalon.hypermedia.hydra.mapping.Term;
+import de.escalon.hypermedia.hydra.serialize.LdContextRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+/**
+ * Tests external contexts.
+ */
+public class LdContextControllerTest {
+
+    private LdContextRegistry ldContextRegistry = new LdContextRegistry();
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockMvc mockMvc;
+
+    @Term(define = "gr", as = "http://purl.org/goodrelations/v1#")
+    @Expose("gr:Offering")
+    public static class Offer {
+        public String name = "Widget";
+    }
+
+    @Before
+    public void setUp() {
+        objectMapper.registerModule(new JacksonHydraModule(ldContextRegistry));
+        mockMvc = standaloneSetup(new LdContextController(ldContextRegistry)).build();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void referencesAndServesExternalContext() throws Exception {
+        JsonNode offer = objectMapper.readTree(objectMapper.writeValueAsString(new Offer()));
+        String contextIri = offer.get("@context")
+                .asText();
+        assertTrue(contextIri, contextIri.startsWith("/contexts/gr_Offering-"));
+        assertEquals("gr:Offering", offer.get("@type")
+                .asText());
+
+        mockMvc.perform(get(contextIri))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(content().string("{\"@context\":{\"@vocab\":\"http://schema.org/\"," +
+                        "\"gr\":\"http://purl.org/goodrelations/v1#\"}}"));
+    }
+
+    @Test
+    public void answersNotModifiedForMatchingETag() throws Exception {
+        String contextIri = objectMapper.readTree(objectMapper.writeValueAsString(new Offer()))
+                .get("@context")
+                .asText();
+        String eTag = mockMvc.perform(get(contextIri))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get(contextIri).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(contextIri).header("If-None-Match", "\"0815\", W/" + eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(contextIri).header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(contextIri).header("If-None-Match", "\"0815\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void referencesContextsBelowContextPath() throws Exception {
+        LdContextRegistry servletRegistry = new ServletLdContextRegistry();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JacksonHydraModule(servletRegistry));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/offers");
+        request.setContextPath("/app");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        String contextIri = mapper.readTree(mapper.writeValueAsString(new Offer()))
+                .get("@context")
+                .asText();
+        assertTrue(contextIri, contextIri.startsWith("http://localhost/app/contexts/gr_Offering-"));
+
+        standaloneSetup(new LdContextController(servletRegistry)).build()
+                .perform(get(contextIri).contextPath("/app"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void writesContextInlineIfRegistryIsFull() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JacksonHydraModule(new LdContextRegistry(LdContextRegistry.DEFAULT_BASE_IRI, 0)));
+        JsonNode offer = mapper.readTree(mapper.writeValueAsString(new Offer()));
+        assertEquals("http://purl.org/goodrelations/v1#", offer.get("@context")
+                .get("gr")
+                .asText());
+    }
+
+    @Test
+    public void answersNotFoundForUnknownContext() throws Exception {
+        mockMvc.perform(get("/contexts/Unknown-0000000000000000"))
+                .andExpect(status().isNotFound());
+    }
+}
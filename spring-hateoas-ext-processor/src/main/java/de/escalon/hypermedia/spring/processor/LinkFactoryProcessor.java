@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Generates a typed link factory for every class annotated with {@code @Controller}. For a controller
+ * {@code EventController} the processor generates {@code EventControllerLinks} in the same package, which has a
+ * {@code LinkHandle} constant and a static factory method for each request mapped method, e.g.
+ * {@code EventControllerLinks.updateEvent(eventId, event)}. The factory methods return an {@code AffordanceBuilder}
+ * without creating a proxy or recording an invocation.
+ * <p>
+ * The factory methods use no reflection. Uri template, parameter roles and input constraints are introspected once,
+ * when the link factory class is initialized, from the same link metadata as with {@code AffordanceBuilder.linkTo},
+ * so that generated and reflective links cannot differ. Methods which the generated class could not look up, e.g.
+ * because a parameter type is not visible in the package of the link factory, are reported as compile errors.
+ * </p>
+ */
+public class LinkFactoryProcessor extends AbstractProcessor {
+
+    static final String CONTROLLER = "org.springframework.stereotype.Controller";
+    static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+    static final String LINK_FACTORY_SUFFIX = "Links";
+
+    private static final String AFFORDANCE_BUILDER = "de.escalon.hypermedia.spring.AffordanceBuilder";
+    private static final String LINK_HANDLE = "de.escalon.hypermedia.spring.LinkHandle";
+    /**
+     * Available since Java 9, the older javax.annotation.Generated was removed from the JDK in Java 11.
+     */
+    private static final String GENERATED = "javax.annotation.processing.Generated";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(CONTROLLER);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement controller : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (isAccessible(controller)) {
+                    List<ExecutableElement> requestMappings = getLinkableRequestMappings(controller);
+                    if (!requestMappings.isEmpty()) {
+                        writeLinkFactory(controller, requestMappings);
+                    }
+                } else {
+                    processingEnv.getMessager()
+                            .printMessage(Diagnostic.Kind.NOTE, "no link factory for private controller", controller);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            if (current.getModifiers()
+                    .contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private List<ExecutableElement> getLinkableRequestMappings(TypeElement controller) {
+        PackageElement linkFactoryPackage = processingEnv.getElementUtils()
+                .getPackageOf(controller);
+        List<ExecutableElement> ret = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : ElementFilter.methodsIn(controller.getEnclosedElements())) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC)
+                    && hasAnnotation(method, REQUEST_MAPPING)) {
+                if (hasVisibleParameterTypes(method, linkFactoryPackage)) {
+                    ret.add(method);
+                } else {
+                    processingEnv.getMessager()
+                            .printMessage(Diagnostic.Kind.ERROR, "cannot generate link factory method, parameter " +
+                                    "types must be visible in package " + linkFactoryPackage.getQualifiedName(),
+                                    method);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Checks if the generated link factory can refer to the erased parameter types of the method, which it needs to
+     * look up the method.
+     *
+     * @param method      to link to
+     * @param fromPackage package of the link factory
+     * @return true if all erased parameter types are visible
+     */
+    private boolean hasVisibleParameterTypes(ExecutableElement method, PackageElement fromPackage) {
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror type = processingEnv.getTypeUtils()
+                    .erasure(parameter.asType());
+            while (type.getKind() == TypeKind.ARRAY) {
+                type = ((ArrayType) type).getComponentType();
+            }
+            if (type.getKind() == TypeKind.DECLARED && !isVisible(((DeclaredType) type).asElement(), fromPackage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isVisible(Element type, PackageElement fromPackage) {
+        boolean samePackage = processingEnv.getElementUtils()
+                .getPackageOf(type)
+                .equals(fromPackage);
+        Element current = type;
+        while (current instanceof TypeElement) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotationMirror.getAnnotationType()
+                    .asElement()).getQualifiedName()
+                    .contentEquals(annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeLinkFactory(TypeElement controller, List<ExecutableElement> requestMappings) {
+        String packageName = processingEnv.getElementUtils()
+                .getPackageOf(controller)
+                .getQualifiedName()
+                .toString();
+        String linkFactoryName = getLinkFactoryName(controller);
+        String qualifiedName = packageName.length() == 0 ? linkFactoryName : packageName + "." + linkFactoryName;
+        String controllerType = processingEnv.getTypeUtils()
+                .erasure(controller.asType())
+                .toString();
+
+        Map<String, Integer> overloads = new HashMap<String, Integer>();
+        for (ExecutableElement method : requestMappings) {
+            String name = method.getSimpleName()
+                    .toString();
+            overloads.put(name, overloads.containsKey(name) ? overloads.get(name) + 1 : 1);
+        }
+
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler()
+                    .createSourceFile(qualifiedName, controller);
+            PrintWriter out = new PrintWriter(sourceFile.openWriter());
+            try {
+                if (packageName.length() > 0) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("/**");
+                out.println(" * Typed link factory for {@link " + controllerType + "}.");
+                out.println(" * Generated by " + LinkFactoryProcessor.class.getName() + ", do not edit.");
+                out.println(" */");
+                if (processingEnv.getElementUtils()
+                        .getTypeElement(GENERATED) != null) {
+                    out.println("@" + GENERATED + "(\"" + LinkFactoryProcessor.class.getName() + "\")");
+                }
+                out.println((controller.getModifiers()
+                        .contains(Modifier.PUBLIC) ? "public " : "") + "final class " + linkFactoryName + " {");
+
+                Map<String, Integer> ordinals = new HashMap<String, Integer>();
+                for (ExecutableElement method : requestMappings) {
+                    String name = method.getSimpleName()
+                            .toString();
+                    String handleName = toConstantName(name);
+                    if (overloads.get(name) > 1) {
+                        int ordinal = ordinals.containsKey(name) ? ordinals.get(name) + 1 : 0;
+                        ordinals.put(name, ordinal);
+                        handleName = handleName + "_" + ordinal;
+                    }
+                    writeLinkMethod(out, controller, controllerType, method, handleName);
+                }
+
+                out.println();
+                out.println("    private " + linkFactoryName + "() {");
+                out.println("    }");
+                out.println("}");
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager()
+                    .printMessage(Diagnostic.Kind.ERROR, "failed to write link factory " + qualifiedName + ": " +
+                            e.getMessage(), controller);
+        }
+    }
+
+    private void writeLinkMethod(PrintWriter out, TypeElement controller, String controllerType,
+                                 ExecutableElement method, String handleName) {
+        boolean erased = !method.getTypeParameters()
+                .isEmpty() || !controller.getTypeParameters()
+                .isEmpty();
+        StringBuilder parameterTypes = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            TypeMirror type = parameter.asType();
+            TypeMirror erasure = processingEnv.getTypeUtils()
+                    .erasure(type);
+            if (parameters.length() > 0) {
+                parameterTypes.append(", ");
+                parameters.append(", ");
+                arguments.append(", ");
+            }
+            parameterTypes.append(erasure)
+                    .append(".class");
+            parameters.append(erased ? erasure : type)
+                    .append(' ')
+                    .append(parameter.getSimpleName());
+            arguments.append(parameter.getSimpleName());
+        }
+
+        out.println();
+        out.println("    public static final " + LINK_HANDLE + " " + handleName + " =");
+        out.println("            " + AFFORDANCE_BUILDER + ".linkHandle(" + controllerType + ".class, \"" +
+                method.getSimpleName() + "\"" + (parameterTypes.length() > 0 ? ", " + parameterTypes : "") +
+                ");");
+        out.println();
+        out.println("    /**");
+        out.println("     * Links to {@link " + controllerType + "#" + method.getSimpleName() + "}.");
+        out.println("     */");
+        out.println("    public static " + AFFORDANCE_BUILDER + " " + method.getSimpleName() + "(" + parameters +
+                ") {");
+        // always pass an array, a single array argument would otherwise become the varargs array
+        out.println("        return " + handleName + ".linkTo(new Object[]{" + arguments + "});");
+        out.println("    }");
+    }
+
+    static String getLinkFactoryName(TypeElement controller) {
+        StringBuilder ret = new StringBuilder(controller.getSimpleName());
+        Element enclosing = controller.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            ret.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return ret.append(LINK_FACTORY_SUFFIX)
+                .toString();
+    }
+
+    static String toConstantName(String methodName) {
+        StringBuilder ret = new StringBuilder(methodName.length() + 8);
+        for (int i = 0; i < methodName.length(); i++) {
+            char c = methodName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                ret.append('_');
+            }
+            ret.append(Character.toUpperCase(c));
+        }
+        return ret.toString();
+    }
+}
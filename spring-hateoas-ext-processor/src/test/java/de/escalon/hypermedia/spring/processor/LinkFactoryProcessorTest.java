@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.processor;
+
+import de.escalon.hypermedia.spring.AffordanceBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.LinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.tools.*;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compiles a sample controller with the processor and links to it with the generated link factory.
+ */
+public class LinkFactoryProcessorTest {
+
+    private static final String EVENT_CONTROLLER = "package sample;\n" +
+            "import org.springframework.stereotype.Controller;\n" +
+            "import org.springframework.web.bind.annotation.*;\n" +
+            "@Controller\n" +
+            "@RequestMapping(\"/events\")\n" +
+            "public class EventController {\n" +
+            "    @RequestMapping(value = \"/{eventId}\", method = RequestMethod.GET)\n" +
+            "    public Object getEvent(@PathVariable int eventId) { return null; }\n" +
+            "    @RequestMapping(method = RequestMethod.GET)\n" +
+            "    public Object findEvents(@RequestParam String name, @RequestParam String[] tags) { return null; }\n" +
+            "    @RequestMapping(value = \"/{eventId}/tags\", method = RequestMethod.PUT)\n" +
+            "    public void updateEvent(@PathVariable int eventId, @RequestBody java.util.List<String> tags) { }\n" +
+            "    @RequestMapping(value = \"/{eventId}/tags\", method = RequestMethod.PATCH)\n" +
+            "    public void updateEvent(@PathVariable int eventId, @RequestParam String tag) { }\n" +
+            "    public void notMapped() { }\n" +
+            "}\n";
+
+    private static final String INVISIBLE_PARAMETER_CONTROLLER = "package sample;\n" +
+            "import org.springframework.stereotype.Controller;\n" +
+            "import org.springframework.web.bind.annotation.*;\n" +
+            "@Controller\n" +
+            "public class FilterController {\n" +
+            "    private static class Filter { }\n" +
+            "    @RequestMapping(\"/filtered\")\n" +
+            "    public Object getFiltered(@RequestBody Filter filter) { return null; }\n" +
+            "}\n";
+
+    private File outputDir;
+
+    @Before
+    public void setUp() {
+        outputDir = new File("target/processor-test");
+        outputDir.mkdirs();
+        MockHttpServletRequest request = MockMvcRequestBuilders.get("http://example.com/")
+                .buildRequest(new MockServletContext());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testGeneratesLinkFactory() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("sample.EventController", EVENT_CONTROLLER);
+        assertTrue(diagnostics.getDiagnostics()
+                .toString(), new File(outputDir, "sample/EventControllerLinks.class").isFile());
+
+        ClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toURI()
+                .toURL()}, getClass().getClassLoader());
+        Class<?> links = classLoader.loadClass("sample.EventControllerLinks");
+
+        Method getEvent = links.getMethod("getEvent", int.class);
+        assertEquals("http://example.com/events/42", toHref(getEvent.invoke(null, 42)));
+
+        Method findEvents = links.getMethod("findEvents", String.class, String[].class);
+        assertEquals("http://example.com/events?name=Tour&tags=a",
+                toHref(findEvents.invoke(null, "Tour", new String[]{"a"})));
+
+        assertNotNull(links.getField("UPDATE_EVENT_0"));
+        assertNotNull(links.getField("UPDATE_EVENT_1"));
+        assertNotNull(links.getMethod("updateEvent", int.class, java.util.List.class));
+        assertNotNull(links.getMethod("updateEvent", int.class, String.class));
+    }
+
+    @Test
+    public void testReportsInvisibleParameterTypeAsError() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile("sample.FilterController",
+                INVISIBLE_PARAMETER_CONTROLLER);
+        boolean reported = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(null)
+                    .contains("parameter types must be visible");
+        }
+        assertTrue(diagnostics.getDiagnostics()
+                .toString(), reported);
+    }
+
+    @Test
+    public void testConstantName() {
+        assertEquals("GET_EVENT", LinkFactoryProcessor.toConstantName("getEvent"));
+        assertEquals("FIND", LinkFactoryProcessor.toConstantName("find"));
+    }
+
+    private static String toHref(Object affordanceBuilder) {
+        return ((AffordanceBuilder) affordanceBuilder).withSelfRel()
+                .getHref();
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile(String className, final String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.',
+                    '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            // surefire may hide the test classpath in a manifest jar, so locate the jars by class
+            String classPath = getLocation(Controller.class) + File.pathSeparator +
+                    getLocation(RequestMapping.class) + File.pathSeparator +
+                    getLocation(AffordanceBuilder.class) + File.pathSeparator +
+                    getLocation(LinkBuilder.class);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-g", "-d", outputDir.getPath(), "-s", outputDir.getPath(), "-classpath", classPath),
+                    null, Collections.singletonList(sourceFile));
+            task.setProcessors(Collections.singletonList(new LinkFactoryProcessor()));
+            task.call();
+        } finally {
+            fileManager.close();
+        }
+        return diagnostics;
+    }
+
+    private static String getLocation(Class<?> type) throws Exception {
+        return new File(type.getProtectionDomain()
+                .getCodeSource()
+                .getLocation()
+                .toURI()).getPath();
+    }
+}
@@ -42,6 +42,41 @@ public class ActionDescriptor {
         this.actionName = actionName;
     }
 
+    /**
+     * Creates an {@link ActionDescriptor} which binds invocation arguments to a shared {@link ActionShape}.
+     *
+     * @param actionShape describing the action
+     * @param arguments   of the invocation, by parameter index. Missing arguments are null.
+     * @see ActionShape#bind(Object...)
+     */
+    public ActionDescriptor(ActionShape actionShape, Object... arguments) {
+        this(actionShape.getActionName(), actionShape.getHttpMethod());
+        this.semanticActionType = actionShape.getSemanticActionType();
+        if (actionShape.getRequestBody() != null) {
+            this.requestBody = bind(actionShape.getRequestBody(), arguments);
+        }
+        for (Map.Entry<String, ActionInputShape> entry : actionShape.getRequestParams()
+                .entrySet()) {
+            requestParams.put(entry.getKey(), bind(entry.getValue(), arguments));
+        }
+        for (Map.Entry<String, ActionInputShape> entry : actionShape.getPathVariables()
+                .entrySet()) {
+            pathVariables.put(entry.getKey(), bind(entry.getValue(), arguments));
+        }
+    }
+
+    private static ActionInputParameter bind(ActionInputShape inputShape, Object[] arguments) {
+        final int parameterIndex = inputShape.getMethodParameter()
+                .getParameterIndex();
+        final Object argument;
+        if (parameterIndex < arguments.length) {
+            argument = arguments[parameterIndex];
+        } else {
+            argument = null;
+        }
+        return new ActionInputParameter(inputShape, argument);
+    }
+
 
     public String getActionName() {
         return actionName;
@@ -14,23 +14,17 @@
 package de.escalon.hypermedia.action;
 
 import de.escalon.hypermedia.AnnotatedParameter;
-import de.escalon.hypermedia.DataType;
 import org.jetbrains.annotations.Nullable;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
-import org.springframework.format.support.DefaultFormattingConversionService;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ValueConstants;
 
 import java.lang.annotation.Annotation;
 import java.util.*;
 
 /**
- * Holds a method parameter value.
+ * Holds a method parameter value. Everything which does not depend on the value is described by a shared
+ * {@link ActionInputShape}.
  *
  * @author Dietrich Schulten
  */
@@ -42,17 +36,19 @@ public class ActionInputParameter implements AnnotatedParameter {
     public static final String MIN_LENGTH = "minLength";
     public static final String MAX_LENGTH = "maxLength";
     public static final String PATTERN = "pattern";
-    private final TypeDescriptor typeDescriptor;
-    private final RequestBody requestBody;
-    private final RequestParam requestParam;
-    private final PathVariable pathVariable;
-    private MethodParameter methodParameter;
-    private Object value;
-    private Boolean arrayOrCollection = null;
-    private Input inputAnnotation;
-    private Map<String, Object> inputConstraints = new HashMap<String, Object>();
-
-    private ConversionService conversionService = new DefaultFormattingConversionService();
+    private final ActionInputShape shape;
+    private final Object value;
+
+    /**
+     * Creates input parameter descriptor.
+     *
+     * @param shape of the parameter
+     * @param value used during sample invocation
+     */
+    public ActionInputParameter(ActionInputShape shape, Object value) {
+        this.shape = shape;
+        this.value = value;
+    }
 
     /**
      * Creates input parameter descriptor.
@@ -62,42 +58,27 @@ public class ActionInputParameter implements AnnotatedParameter {
      * @param conversionService to apply to value
      */
     public ActionInputParameter(MethodParameter methodParameter, Object value, ConversionService conversionService) {
-        this.methodParameter = methodParameter;
-        this.value = value;
-        this.requestBody = methodParameter.getParameterAnnotation(RequestBody.class);
-        this.requestParam = methodParameter.getParameterAnnotation(RequestParam.class);
-        this.pathVariable = methodParameter.getParameterAnnotation(PathVariable.class);
-        // always determine input constraints,
-        // might be a nested property which is neither requestBody, requestParam nor pathVariable
-        this.inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
-        if (inputAnnotation != null) {
-            putInputConstraint(MIN, Integer.MIN_VALUE, inputAnnotation.min());
-            putInputConstraint(MAX, Integer.MAX_VALUE, inputAnnotation.max());
-            putInputConstraint(MIN_LENGTH, Integer.MIN_VALUE, inputAnnotation.minLength());
-            putInputConstraint(MAX_LENGTH, Integer.MAX_VALUE, inputAnnotation.maxLength());
-            putInputConstraint(STEP, 0, inputAnnotation.step());
-            putInputConstraint(PATTERN, "", inputAnnotation.pattern());
-        }
-
-        this.conversionService = conversionService;
-        this.typeDescriptor = TypeDescriptor.nested(methodParameter, 0);
+        this(new ActionInputShape(methodParameter, conversionService), value);
     }
 
     /**
-     * Creates new ActionInputParameter with default formatting conversion service.
+     * Creates new ActionInputParameter which formats values with the default conversion service of
+     * {@link ActionInputShape#setDefaultConversionService(ConversionService)}.
      *
      * @param methodParameter holding metadata about the parameter
      * @param value           during sample method invocation
      */
     public ActionInputParameter(MethodParameter methodParameter, Object value) {
-        this(methodParameter, value, new DefaultFormattingConversionService());
+        this(new ActionInputShape(methodParameter, null), value);
     }
 
-
-    private void putInputConstraint(String key, Object defaultValue, Object value) {
-        if (!value.equals(defaultValue)) {
-            inputConstraints.put(key, value);
-        }
+    /**
+     * Gets value-independent description of the parameter.
+     *
+     * @return shape
+     */
+    public ActionInputShape getShape() {
+        return shape;
     }
 
     /**
@@ -116,13 +97,7 @@ public class ActionInputParameter implements AnnotatedParameter {
      */
     @Nullable
     public String getCallValueFormatted() {
-        String ret;
-        if (value == null) {
-            ret = null;
-        } else {
-            ret = (String) conversionService.convert(value, typeDescriptor, TypeDescriptor.valueOf(String.class));
-        }
-        return ret;
+        return shape.format(value);
     }
 
     /**
@@ -131,44 +106,34 @@ public class ActionInputParameter implements AnnotatedParameter {
      * @return the type
      */
     public Type getHtmlInputFieldType() {
-        final Type ret;
-        if (inputAnnotation == null || inputAnnotation.value() == Type.FROM_JAVA) {
-            if (isNumber()) {
-                ret = Type.NUMBER;
-            } else {
-                ret = Type.TEXT;
-            }
-        } else {
-            ret = inputAnnotation.value();
-        }
-        return ret;
+        return shape.getHtmlInputFieldType();
     }
 
 
     public boolean isRequestBody() {
-        return requestBody != null;
+        return shape.isRequestBody();
     }
 
     public boolean isRequestParam() {
-        return requestParam != null;
+        return shape.isRequestParam();
     }
 
     public boolean isPathVariable() {
-        return pathVariable != null;
+        return shape.isPathVariable();
     }
 
     public boolean hasInputConstraints() {
-        return !inputConstraints.isEmpty();
+        return shape.hasInputConstraints();
     }
 
     @Override
     public <T extends Annotation> T getAnnotation(Class<T> annotation) {
-        return methodParameter.getParameterAnnotation(annotation);
+        return shape.getAnnotation(annotation);
     }
 
 
     public Object[] getPossibleValues(ActionDescriptor actionDescriptor) {
-        return getPossibleValues(methodParameter, actionDescriptor);
+        return getPossibleValues(shape.getMethodParameter(), actionDescriptor);
     }
 
     public Object[] getPossibleValues(MethodParameter methodParameter, ActionDescriptor actionDescriptor) {
@@ -224,32 +189,20 @@ public class ActionInputParameter implements AnnotatedParameter {
     }
 
     public boolean isArrayOrCollection() {
-        if (arrayOrCollection == null) {
-            Class<?> parameterType = getParameterType();
-            arrayOrCollection = DataType.isArrayOrCollection(parameterType);
-        }
-        return arrayOrCollection;
+        return shape.isArrayOrCollection();
     }
 
     public boolean isBoolean() {
-        return DataType.isBoolean(getParameterType());
+        return shape.isBoolean();
     }
 
     public boolean isNumber() {
-        return DataType.isNumber(getParameterType());
+        return shape.isNumber();
     }
 
 
     public boolean isRequired() {
-        boolean ret;
-        if (isRequestBody()) {
-            ret = requestBody.required();
-        } else if (isRequestParam()) {
-            ret = !(ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) || requestParam.required();
-        } else {
-            ret = true;
-        }
-        return ret;
+        return shape.isRequired();
     }
 
     /**
@@ -258,14 +211,7 @@ public class ActionInputParameter implements AnnotatedParameter {
      * @return value or null
      */
     public String getDefaultValue() {
-        String ret;
-        if (isRequestParam()) {
-            ret = !(ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) ?
-                    requestParam.defaultValue() : null;
-        } else {
-            ret = null;
-        }
-        return ret;
+        return shape.getDefaultValue();
     }
 
     public Object[] getCallValues() {
@@ -292,36 +238,28 @@ public class ActionInputParameter implements AnnotatedParameter {
     }
 
     public String getParameterName() {
-        String ret;
-        String parameterName = methodParameter.getParameterName();
-        if (parameterName == null) {
-            methodParameter.initParameterNameDiscovery(new LocalVariableTableParameterNameDiscoverer());
-            ret = methodParameter.getParameterName();
-        } else {
-            ret = parameterName;
-        }
-        return ret;
+        return shape.getParameterName();
     }
 
     @Override
     public Class<?> getDeclaringClass() {
-        return methodParameter.getDeclaringClass();
+        return shape.getDeclaringClass();
     }
 
     public Class<?> getParameterType() {
-        return methodParameter.getParameterType();
+        return shape.getParameterType();
     }
 
     public java.lang.reflect.Type getGenericParameterType() {
-        return methodParameter.getGenericParameterType();
+        return shape.getGenericParameterType();
     }
 
     public Class<?> getNestedParameterType() {
-        return methodParameter.getNestedParameterType();
+        return shape.getNestedParameterType();
     }
 
     public Map<String, Object> getInputConstraints() {
-        return inputConstraints;
+        return shape.getInputConstraints();
     }
 
 }
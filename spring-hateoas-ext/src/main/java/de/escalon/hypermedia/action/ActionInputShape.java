@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+import de.escalon.hypermedia.DataType;
+import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.NumberFormat;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of a method parameter which does not depend on the parameter value: role, input constraints,
+ * type and formatting. Owners of cached metadata, such as the link metadata of a controller method, create a shape
+ * once per method parameter and share it among all {@link ActionInputParameter}s of that parameter.
+ * <p>
+ * Unless a shape is created with its own conversion service, values are formatted by a process-wide conversion
+ * service, see {@link #setDefaultConversionService(ConversionService)}.
+ * </p>
+ *
+ * @author Dietrich Schulten
+ */
+public final class ActionInputShape {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER =
+            new LocalVariableTableParameterNameDiscoverer();
+
+    private static final TypeDescriptor STRING_TYPE = TypeDescriptor.valueOf(String.class);
+
+    private static final ConversionService BUILTIN_CONVERSION_SERVICE = new DefaultFormattingConversionService();
+
+    private static volatile ConversionService defaultConversionService = BUILTIN_CONVERSION_SERVICE;
+
+    private final MethodParameter methodParameter;
+    private final String parameterName;
+    private final TypeDescriptor typeDescriptor;
+    private final RequestBody requestBody;
+    private final RequestParam requestParam;
+    private final PathVariable pathVariable;
+    private final Input inputAnnotation;
+    private final Map<String, Object> inputConstraints;
+    private final boolean arrayOrCollection;
+    private final boolean annotatedFormat;
+    private final ConversionService conversionService;
+
+    /**
+     * Creates shape of a method parameter.
+     *
+     * @param methodParameter   to describe
+     * @param conversionService to format values of the parameter, null to use the default conversion service
+     */
+    public ActionInputShape(MethodParameter methodParameter, ConversionService conversionService) {
+        this.methodParameter = methodParameter;
+        this.requestBody = methodParameter.getParameterAnnotation(RequestBody.class);
+        this.requestParam = methodParameter.getParameterAnnotation(RequestParam.class);
+        this.pathVariable = methodParameter.getParameterAnnotation(PathVariable.class);
+        // always determine input constraints,
+        // might be a nested property which is neither requestBody, requestParam nor pathVariable
+        this.inputAnnotation = methodParameter.getParameterAnnotation(Input.class);
+        if (inputAnnotation != null) {
+            Map<String, Object> constraints = new HashMap<String, Object>();
+            putInputConstraint(constraints, ActionInputParameter.MIN, Integer.MIN_VALUE, inputAnnotation.min());
+            putInputConstraint(constraints, ActionInputParameter.MAX, Integer.MAX_VALUE, inputAnnotation.max());
+            putInputConstraint(constraints, ActionInputParameter.MIN_LENGTH, Integer.MIN_VALUE,
+                    inputAnnotation.minLength());
+            putInputConstraint(constraints, ActionInputParameter.MAX_LENGTH, Integer.MAX_VALUE,
+                    inputAnnotation.maxLength());
+            putInputConstraint(constraints, ActionInputParameter.STEP, 0, inputAnnotation.step());
+            putInputConstraint(constraints, ActionInputParameter.PATTERN, "", inputAnnotation.pattern());
+            this.inputConstraints = Collections.unmodifiableMap(constraints);
+        } else {
+            this.inputConstraints = Collections.emptyMap();
+        }
+        this.arrayOrCollection = DataType.isArrayOrCollection(methodParameter.getParameterType());
+        this.annotatedFormat = methodParameter.getParameterAnnotation(NumberFormat.class) != null
+                || methodParameter.getParameterAnnotation(DateTimeFormat.class) != null;
+        this.conversionService = conversionService;
+        this.typeDescriptor = TypeDescriptor.nested(methodParameter, 0);
+        this.parameterName = discoverParameterName(methodParameter);
+    }
+
+    /**
+     * Discovers the parameter name without initializing parameter name discovery on the method parameter, which may
+     * be shared with other threads.
+     */
+    private static String discoverParameterName(MethodParameter methodParameter) {
+        String ret = methodParameter.getParameterName();
+        int parameterIndex = methodParameter.getParameterIndex();
+        if (ret == null && parameterIndex >= 0) {
+            String[] parameterNames = methodParameter.getMethod() != null ?
+                    PARAMETER_NAME_DISCOVERER.getParameterNames(methodParameter.getMethod()) :
+                    PARAMETER_NAME_DISCOVERER.getParameterNames(methodParameter.getConstructor());
+            ret = parameterNames == null ? null : parameterNames[parameterIndex];
+        }
+        return ret;
+    }
+
+    /**
+     * Sets the conversion service which formats parameter values of shapes without their own conversion service,
+     * e.g. the conversion service of Spring MVC:
+     * <pre>
+     * &#64;Autowired
+     * public void setMvcConversionService(FormattingConversionService mvcConversionService) {
+     *     ActionInputShape.setDefaultConversionService(mvcConversionService);
+     * }
+     * </pre>
+     *
+     * @param conversionService to use, null to restore the built-in {@link DefaultFormattingConversionService}
+     */
+    public static void setDefaultConversionService(ConversionService conversionService) {
+        defaultConversionService = conversionService == null ? BUILTIN_CONVERSION_SERVICE : conversionService;
+    }
+
+    /**
+     * Gets the conversion service which formats parameter values of shapes without their own conversion service.
+     *
+     * @return conversion service
+     */
+    public static ConversionService getDefaultConversionService() {
+        return defaultConversionService;
+    }
+
+    private static void putInputConstraint(Map<String, Object> constraints, String key, Object defaultValue,
+                                           Object value) {
+        if (!value.equals(defaultValue)) {
+            constraints.put(key, value);
+        }
+    }
+
+    public MethodParameter getMethodParameter() {
+        return methodParameter;
+    }
+
+    /**
+     * Formats a value of this parameter according to conversion configuration.
+     *
+     * @param value to format, may be null
+     * @return formatted value or null
+     */
+    public String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        ConversionService service = conversionService == null ? defaultConversionService : conversionService;
+        if (service == BUILTIN_CONVERSION_SERVICE && !annotatedFormat) {
+            // the built-in conversion service formats these types like toString or name
+            Class<?> valueType = value.getClass();
+            if (valueType == String.class) {
+                return (String) value;
+            } else if (valueType == Integer.class || valueType == Long.class) {
+                return value.toString();
+            } else if (value instanceof Enum) {
+                return ((Enum<?>) value).name();
+            }
+        }
+        return (String) service.convert(value, typeDescriptor, STRING_TYPE);
+    }
+
+    /**
+     * Gets parameter type for input field according to {@link Type} annotation.
+     *
+     * @return the type
+     */
+    public Type getHtmlInputFieldType() {
+        final Type ret;
+        if (inputAnnotation == null || inputAnnotation.value() == Type.FROM_JAVA) {
+            if (isNumber()) {
+                ret = Type.NUMBER;
+            } else {
+                ret = Type.TEXT;
+            }
+        } else {
+            ret = inputAnnotation.value();
+        }
+        return ret;
+    }
+
+    public boolean isRequestBody() {
+        return requestBody != null;
+    }
+
+    public boolean isRequestParam() {
+        return requestParam != null;
+    }
+
+    public boolean isPathVariable() {
+        return pathVariable != null;
+    }
+
+    public boolean hasInputConstraints() {
+        return !inputConstraints.isEmpty();
+    }
+
+    /**
+     * Gets input constraints from {@link Input} annotation, keyed by {@link ActionInputParameter#MIN} etc.
+     *
+     * @return unmodifiable constraints
+     */
+    public Map<String, Object> getInputConstraints() {
+        return inputConstraints;
+    }
+
+    public <T extends Annotation> T getAnnotation(Class<T> annotation) {
+        return methodParameter.getParameterAnnotation(annotation);
+    }
+
+    public boolean isArrayOrCollection() {
+        return arrayOrCollection;
+    }
+
+    public boolean isBoolean() {
+        return DataType.isBoolean(getParameterType());
+    }
+
+    public boolean isNumber() {
+        return DataType.isNumber(getParameterType());
+    }
+
+    public boolean isRequired() {
+        boolean ret;
+        if (isRequestBody()) {
+            ret = requestBody.required();
+        } else if (isRequestParam()) {
+            ret = !(ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) || requestParam.required();
+        } else {
+            ret = true;
+        }
+        return ret;
+    }
+
+    /**
+     * Determines default value of request param, if available.
+     *
+     * @return value or null
+     */
+    public String getDefaultValue() {
+        String ret;
+        if (isRequestParam()) {
+            ret = !(ValueConstants.DEFAULT_NONE.equals(requestParam.defaultValue())) ?
+                    requestParam.defaultValue() : null;
+        } else {
+            ret = null;
+        }
+        return ret;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public Class<?> getDeclaringClass() {
+        return methodParameter.getDeclaringClass();
+    }
+
+    public Class<?> getParameterType() {
+        return methodParameter.getParameterType();
+    }
+
+    public java.lang.reflect.Type getGenericParameterType() {
+        return methodParameter.getGenericParameterType();
+    }
+
+    public Class<?> getNestedParameterType() {
+        return methodParameter.getNestedParameterType();
+    }
+}
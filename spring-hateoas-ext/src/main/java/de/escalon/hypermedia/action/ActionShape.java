@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for
+ * the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of an HTTP method which does not depend on invocation arguments. A shape is created once per
+ * handler method and bound to the arguments of a link by {@link #bind(Object...)}.
+ *
+ * @author Dietrich Schulten
+ */
+public final class ActionShape {
+
+    private final String actionName;
+    private final RequestMethod httpMethod;
+    private final String semanticActionType;
+    private final ActionInputShape requestBody;
+    private final Map<String, ActionInputShape> requestParams;
+    private final Map<String, ActionInputShape> pathVariables;
+
+    /**
+     * Creates an {@link ActionShape}.
+     *
+     * @param actionName         can be used by the action representation, e.g. to identify the action using a form
+     *                           name.
+     * @param httpMethod         used during submit
+     * @param semanticActionType URL identifying the type of action, may be null
+     * @param requestBody        shape of request body parameter, may be null
+     * @param requestParams      shapes of request params by name, in iteration order
+     * @param pathVariables      shapes of path variables by name, in iteration order
+     */
+    public ActionShape(String actionName, RequestMethod httpMethod, String semanticActionType,
+                       ActionInputShape requestBody, Map<String, ActionInputShape> requestParams,
+                       Map<String, ActionInputShape> pathVariables) {
+        this.actionName = actionName;
+        this.httpMethod = httpMethod;
+        this.semanticActionType = semanticActionType;
+        this.requestBody = requestBody;
+        this.requestParams = Collections.unmodifiableMap(new LinkedHashMap<String, ActionInputShape>(requestParams));
+        this.pathVariables = Collections.unmodifiableMap(new LinkedHashMap<String, ActionInputShape>(pathVariables));
+    }
+
+    /**
+     * Binds arguments of a handler method invocation.
+     *
+     * @param arguments of the invocation, by parameter index. Missing arguments are null.
+     * @return action descriptor holding the argument values
+     */
+    public ActionDescriptor bind(Object... arguments) {
+        return new ActionDescriptor(this, arguments);
+    }
+
+    public String getActionName() {
+        return actionName;
+    }
+
+    public RequestMethod getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * Gets semantic type of action, e.g. a subtype of hydra:Operation or schema:Action.
+     *
+     * @return URL identifying the type or null
+     */
+    public String getSemanticActionType() {
+        return semanticActionType;
+    }
+
+    /**
+     * Gets request body shape.
+     *
+     * @return shape or null
+     */
+    public ActionInputShape getRequestBody() {
+        return requestBody;
+    }
+
+    public Map<String, ActionInputShape> getRequestParams() {
+        return requestParams;
+    }
+
+    public Map<String, ActionInputShape> getPathVariables() {
+        return pathVariables;
+    }
+}
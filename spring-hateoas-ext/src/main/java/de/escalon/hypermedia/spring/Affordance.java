@@ -13,6 +13,7 @@ package de.escalon.hypermedia.spring;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.escalon.hypermedia.action.ActionDescriptor;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.UriTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -36,6 +37,13 @@ public class Affordance extends Link {
     private List<ActionDescriptor> actionDescriptors = new ArrayList<ActionDescriptor>();
     private MultiValueMap<String, String> linkParams = new LinkedMultiValueMap<String, String>();
 
+    // header components are computed on demand from the compiled template, derived affordances share the templates
+    private final UriTemplate linkTemplate;
+    /**
+     * Template the affordance was built from, null for an expanded affordance which has no variables left.
+     */
+    private final PartialUriTemplate uriTemplate;
+    private final boolean optionalVariablesStripped;
     private UriTemplateComponents uriTemplateComponents;
 
     /**
@@ -55,24 +63,34 @@ public class Affordance extends Link {
      * @param rels describing the link relation type
      */
     public Affordance(PartialUriTemplate uriTemplate, List<ActionDescriptor> actionDescriptors, String... rels) {
-        super(uriTemplate.stripOptionalVariables(actionDescriptors)); // keep only required and expanded variables
-        this.uriTemplateComponents = uriTemplate.unexpandedComponents();
+        // keep only required and expanded variables
+        this(new UriTemplate(uriTemplate.stripOptionalVariables(actionDescriptors)), uriTemplate, actionDescriptors,
+                false);
         Assert.noNullElements(rels, "null rels are not allowed");
         for (String rel : rels) {
             addRel(rel);
         }
+    }
+
+    private Affordance(UriTemplate linkTemplate, PartialUriTemplate uriTemplate,
+                       List<ActionDescriptor> actionDescriptors, boolean optionalVariablesStripped) {
+        super(linkTemplate, Link.REL_SELF);
+        this.linkTemplate = linkTemplate;
+        this.uriTemplate = uriTemplate;
+        this.optionalVariablesStripped = optionalVariablesStripped;
         this.actionDescriptors.addAll(actionDescriptors);
     }
 
-    private Affordance(String uriTemplate, MultiValueMap<String, String> linkParams,
-                       List<ActionDescriptor> actionDescriptors) {
-        this(new PartialUriTemplate(uriTemplate), actionDescriptors); // no rels to pass
+    private Affordance(UriTemplate linkTemplate, PartialUriTemplate uriTemplate,
+                       MultiValueMap<String, String> linkParams, List<ActionDescriptor> actionDescriptors,
+                       boolean optionalVariablesStripped) {
+        this(linkTemplate, uriTemplate, actionDescriptors, optionalVariablesStripped); // no rels to pass
         this.linkParams = linkParams; // takes care of rels
     }
 
 
     public Affordance(String href) {
-        super(href);
+        this(new PartialUriTemplate(href), Collections.<ActionDescriptor>emptyList());
     }
 
     /**
@@ -242,7 +260,7 @@ public class Affordance extends Link {
     @JsonIgnore
     public String getHeaderName() {
         String headerName;
-        if (uriTemplateComponents.hasVariables()) {
+        if (getUriTemplateComponents().hasVariables()) {
             headerName = "Link-Template";
         } else {
             headerName = "Link";
@@ -250,6 +268,22 @@ public class Affordance extends Link {
         return headerName;
     }
 
+    private UriTemplateComponents getUriTemplateComponents() {
+        UriTemplateComponents ret = uriTemplateComponents;
+        if (ret == null) {
+            if (uriTemplate == null) {
+                ret = new PartialUriTemplate(getHref()).unexpandedComponents();
+            } else if (optionalVariablesStripped) {
+                // a derived affordance has the variables of the stripped href
+                ret = uriTemplate.stripOptionalVariableComponents(actionDescriptors);
+            } else {
+                ret = uriTemplate.unexpandedComponents();
+            }
+            uriTemplateComponents = ret;
+        }
+        return ret;
+    }
+
     public String asHeader() {
         StringBuilder result = new StringBuilder();
         for (Map.Entry<String, List<String>> linkParamEntry : linkParams.entrySet()) {
@@ -294,7 +328,7 @@ public class Affordance extends Link {
     @Override
     public Affordance withRel(String rel) {
         linkParams.set("rel", rel);
-        return new Affordance(this.getHref(), linkParams, actionDescriptors);
+        return new Affordance(linkTemplate, uriTemplate, linkParams, actionDescriptors, true);
     }
 
     @Override
@@ -303,17 +337,24 @@ public class Affordance extends Link {
                 .contains(Link.REL_SELF)) {
             linkParams.add("rel", Link.REL_SELF);
         }
-        return new Affordance(this.getHref(), linkParams, actionDescriptors);
+        return new Affordance(linkTemplate, uriTemplate, linkParams, actionDescriptors, true);
     }
 
     @Override
     public Affordance expand(Object... arguments) {
-        return new Affordance(super.expand(arguments).getHref(), linkParams, actionDescriptors);
+        return newExpandedAffordance(linkTemplate.expand(arguments)
+                .toString());
     }
 
     @Override
     public Affordance expand(Map<String, ? extends Object> arguments) {
-        return new Affordance(super.expand(arguments).getHref(), linkParams, actionDescriptors);
+        return newExpandedAffordance(linkTemplate.expand(arguments)
+                .toString());
+    }
+
+    private Affordance newExpandedAffordance(String href) {
+        // expansion leaves no variables, so there is nothing to strip; header components are parsed on demand
+        return new Affordance(new UriTemplate(href), null, linkParams, actionDescriptors, false);
     }
 
     @JsonIgnore
@@ -330,5 +371,6 @@ public class Affordance extends Link {
 
     public void setActionDescriptors(List<ActionDescriptor> actionDescriptors) {
         this.actionDescriptors = actionDescriptors;
+        this.uriTemplateComponents = null;
     }
 }
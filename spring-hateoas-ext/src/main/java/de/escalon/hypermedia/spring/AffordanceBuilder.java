@@ -20,6 +20,8 @@ import org.springframework.hateoas.core.MappingDiscoverer;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.context.request.RequestAttributes;
@@ -27,11 +29,13 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +48,9 @@ public class AffordanceBuilder implements LinkBuilder {
 
     private static final MappingDiscoverer DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
     private static final AffordanceBuilderFactory FACTORY = new AffordanceBuilderFactory();
+    private static final String BASE_URI_ATTRIBUTE = AffordanceBuilder.class.getName() + ".BASE_URI";
+
+    private static volatile BaseUriResolver baseUriResolver = new ForwardedHeaderBaseUriResolver();
 
     private UriTemplateComponents uriTemplateComponents;
     private List<ActionDescriptor> actionDescriptors = new ArrayList<ActionDescriptor>();
@@ -88,12 +95,55 @@ public class AffordanceBuilder implements LinkBuilder {
     }
 
 
+    /**
+     * Creates one {@link AffordanceBuilder} per argument tuple, e.g. for the items of a collection resource. The
+     * method mapping is introspected and parsed only once for the entire batch.
+     *
+     * @param controller     the class to discover the method on
+     * @param method         the method to link to
+     * @param argumentTuples arguments of the method, one array per affordance
+     * @return builders in the order of the argument tuples
+     */
+    public static List<AffordanceBuilder> linksTo(Class<?> controller, Method method,
+                                                  Iterable<Object[]> argumentTuples) {
+        return FACTORY.linksTo(controller, method, argumentTuples);
+    }
+
+    /**
+     * Creates one {@link AffordanceBuilder} per argument tuple for a method invocation recorded by
+     * {@link #methodOn(Class, Object...)}, e.g. for the items of a collection resource. The arguments of the
+     * recorded invocation are only used to identify the method, they are replaced by the argument tuples.
+     *
+     * @param methodInvocation recorded invocation
+     * @param argumentTuples   arguments of the method, one array per affordance
+     * @return builders in the order of the argument tuples
+     */
+    public static List<AffordanceBuilder> linksTo(Object methodInvocation, Iterable<Object[]> argumentTuples) {
+        return FACTORY.linksTo(methodInvocation, argumentTuples);
+    }
+
+    /**
+     * Gets a handle which links to a controller method without recording a method invocation on a proxy. Look up the
+     * handle once and keep it, e.g. in a static final field of the controller.
+     *
+     * @param controller     the class to discover the method on
+     * @param methodName     name of the method
+     * @param parameterTypes parameter types of the method
+     * @return handle
+     * @throws IllegalArgumentException if the controller has no such method
+     */
+    public static LinkHandle linkHandle(Class<?> controller, String methodName, Class<?>... parameterTypes) {
+        Method method = ReflectionUtils.findMethod(controller, methodName, parameterTypes);
+        Assert.notNull(method, "no method " + methodName + Arrays.toString(parameterTypes) + " on " +
+                controller.getName());
+        return FACTORY.getLinkHandle(controller, method);
+    }
+
     /**
      * Creates a new {@link AffordanceBuilder} pointing to this server, but without ActionDescriptor.
      */
     AffordanceBuilder() {
-        this(new PartialUriTemplate(getBuilder().build()
-                        .toString()).expand(Collections.<String, Object>emptyMap()),
+        this(PartialUriTemplate.forTemplate(getBaseUri()).expand(Collections.<String, Object>emptyMap()),
                 Collections.<ActionDescriptor>emptyList());
 
     }
@@ -288,51 +338,50 @@ public class AffordanceBuilder implements LinkBuilder {
     }
 
     /**
-     * Returns a {@link UriComponentsBuilder} obtained from the current servlet mapping with the host tweaked in case the
-     * request contains an {@code X-Forwarded-Host} header and the scheme tweaked in case the request contains an
-     * {@code X-Forwarded-Ssl} header
+     * Sets the strategy which determines the base uri of links, e.g. to evaluate custom headers of a proxy.
      *
-     * @return
+     * @param baseUriResolver to use, null to restore the {@link ForwardedHeaderBaseUriResolver}
      */
-    static UriComponentsBuilder getBuilder() {
+    public static void setBaseUriResolver(BaseUriResolver baseUriResolver) {
+        AffordanceBuilder.baseUriResolver = baseUriResolver == null ?
+                new ForwardedHeaderBaseUriResolver() : baseUriResolver;
+    }
 
+    /**
+     * Returns the base uri of the current request as determined by the {@link BaseUriResolver}. The base uri is
+     * resolved once per dispatch and kept in a request attribute: a forward or include dispatches the request to
+     * another servlet mapping, so the base uri is resolved again when the forward or include request uri differs
+     * from the one the base uri was resolved for.
+     *
+     * @return base uri
+     */
+    static String getBaseUri() {
         HttpServletRequest request = getCurrentRequest();
-        ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromServletMapping(request);
-
-        String forwardedSsl = request.getHeader("X-Forwarded-Ssl");
-
-        if (StringUtils.hasText(forwardedSsl) && forwardedSsl.equalsIgnoreCase("on")) {
-            builder.scheme("https");
-        }
-
-        String host = request.getHeader("X-Forwarded-Host");
-
-        if (!StringUtils.hasText(host)) {
-            return builder;
-        }
-
-        String[] hosts = StringUtils.commaDelimitedListToStringArray(host);
-        String hostToUse = hosts[0];
-
-        if (hostToUse.contains(":")) {
-
-            String[] hostAndPort = StringUtils.split(hostToUse, ":");
-
-            builder.host(hostAndPort[0]);
-            builder.port(Integer.parseInt(hostAndPort[1]));
-
-        } else {
-            builder.host(hostToUse);
-            builder.port(-1); // reset port if it was forwarded from default port
+        Object forwardRequestUri = request.getAttribute(WebUtils.FORWARD_REQUEST_URI_ATTRIBUTE);
+        Object includeRequestUri = request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+        ResolvedBaseUri resolved = (ResolvedBaseUri) request.getAttribute(BASE_URI_ATTRIBUTE);
+        if (resolved == null || !ObjectUtils.nullSafeEquals(resolved.forwardRequestUri, forwardRequestUri)
+                || !ObjectUtils.nullSafeEquals(resolved.includeRequestUri, includeRequestUri)) {
+            resolved = new ResolvedBaseUri(baseUriResolver.resolveBaseUri(request), forwardRequestUri,
+                    includeRequestUri);
+            request.setAttribute(BASE_URI_ATTRIBUTE, resolved);
         }
+        return resolved.baseUri;
+    }
 
-        String port = request.getHeader("X-Forwarded-Port");
-
-        if (StringUtils.hasText(port)) {
-            builder.port(Integer.parseInt(port));
+    /**
+     * Base uri together with the dispatch it was resolved for.
+     */
+    private static final class ResolvedBaseUri {
+        final String baseUri;
+        final Object forwardRequestUri;
+        final Object includeRequestUri;
+
+        ResolvedBaseUri(String baseUri, Object forwardRequestUri, Object includeRequestUri) {
+            this.baseUri = baseUri;
+            this.forwardRequestUri = forwardRequestUri;
+            this.includeRequestUri = includeRequestUri;
         }
-
-        return builder;
     }
 
     /**
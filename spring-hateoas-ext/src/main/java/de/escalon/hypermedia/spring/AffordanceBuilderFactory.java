@@ -10,23 +10,21 @@
 
 package de.escalon.hypermedia.spring;
 
-import de.escalon.hypermedia.action.Action;
+import de.escalon.hypermedia.ClassCache;
 import de.escalon.hypermedia.action.ActionDescriptor;
-import de.escalon.hypermedia.action.ActionInputParameter;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.core.MethodParameter;
-import org.springframework.core.annotation.AnnotationUtils;
+import de.escalon.hypermedia.action.ActionInputShape;
+import de.escalon.hypermedia.action.ActionShape;
 import org.springframework.hateoas.MethodLinkBuilderFactory;
 import org.springframework.hateoas.core.AnnotationMappingDiscoverer;
 import org.springframework.hateoas.core.DummyInvocationUtils;
 import org.springframework.hateoas.core.MappingDiscoverer;
-import org.springframework.hateoas.core.MethodParameters;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Factory for {@link AffordanceBuilder}s. Normally one should use the static methods of AffordanceBuilder to get an
@@ -37,6 +35,17 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
     private static final MappingDiscoverer MAPPING_DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
 
+    /**
+     * Link metadata by controller class and method.
+     */
+    private final ClassCache<ConcurrentMap<Method, MethodLinkMetadata>> methodLinkMetadata =
+            new ClassCache<ConcurrentMap<Method, MethodLinkMetadata>>() {
+                @Override
+                protected ConcurrentMap<Method, MethodLinkMetadata> compute(Class<?> type) {
+                    return new ConcurrentHashMap<Method, MethodLinkMetadata>();
+                }
+            };
+
     @Override
     public AffordanceBuilder linkTo(Method method, Object... parameters) {
         return linkTo(method.getDeclaringClass(), method, parameters);
@@ -45,31 +54,81 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
     @Override
     public AffordanceBuilder linkTo(Class<?> type, Method method, Object... parameters) {
 
-        String pathMapping = MAPPING_DISCOVERER.getMapping(type, method);
+        return linkTo(getMethodLinkMetadata(type, method), parameters);
+    }
 
-        final List<String> params = getRequestParamNames(method);
-        String query = StringUtils.join(params, ',');
-        String mapping = StringUtils.isBlank(query) ? pathMapping : pathMapping + "{?" + query + "}";
+    /**
+     * Creates one {@link AffordanceBuilder} per argument tuple. The mapping of the method is introspected and parsed
+     * only once for the entire batch, only the argument values are bound for each item.
+     *
+     * @param type           of controller, may be a subclass of the class declaring the method
+     * @param method         of controller
+     * @param argumentTuples arguments of the method, one array per affordance
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linksTo(Class<?> type, Method method, Iterable<Object[]> argumentTuples) {
+        return linksTo(getMethodLinkMetadata(type, method), argumentTuples);
+    }
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build()
-                .toString() + mapping);
+    /**
+     * Gets a handle which links to the given method without recording a method invocation.
+     *
+     * @param type   of controller, may be a subclass of the class declaring the method
+     * @param method of controller
+     * @return handle, can be kept for the lifetime of this factory
+     * @see LinkHandle
+     */
+    public LinkHandle getLinkHandle(Class<?> type, Method method) {
+        Assert.notNull(type);
+        Assert.notNull(method);
+        return new LinkHandle(this, getMethodLinkMetadata(type, method));
+    }
 
-        Map<String, Object> values = new HashMap<String, Object>();
+    AffordanceBuilder linkTo(MethodLinkMetadata metadata, Object[] arguments) {
+        return linkTo(metadata, getPartialUriTemplate(metadata), Collections.<Object>emptyList(), arguments);
+    }
 
-        Iterator<String> names = partialUriTemplate.getVariableNames()
-                .iterator();
-        // there may be more or less mapping variables than arguments
-        for (Object parameter : parameters) {
-            if (!names.hasNext()) {
-                break;
-            }
-            values.put(names.next(), parameter);
+    List<AffordanceBuilder> linksTo(MethodLinkMetadata metadata, Iterable<Object[]> argumentTuples) {
+        Assert.notNull(argumentTuples);
+
+        PartialUriTemplate partialUriTemplate = getPartialUriTemplate(metadata);
+
+        List<AffordanceBuilder> ret = new ArrayList<AffordanceBuilder>();
+        for (Object[] arguments : argumentTuples) {
+            ret.add(linkTo(metadata, partialUriTemplate, Collections.<Object>emptyList(), arguments));
         }
+        return ret;
+    }
 
-        ActionDescriptor actionDescriptor = getActionDescriptor(method, values, parameters);
+    /**
+     * Creates one {@link AffordanceBuilder} per argument tuple for the method invocation recorded by
+     * {@link AffordanceBuilder#methodOn(Class, Object...)}. Parameters for the class level mapping are taken from the
+     * recorded invocation, the arguments of the recorded invocation are replaced by the argument tuples.
+     *
+     * @param invocationValue recorded invocation
+     * @param argumentTuples  arguments of the method, one array per affordance
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linksTo(Object invocationValue, Iterable<Object[]> argumentTuples) {
+        Assert.isInstanceOf(DummyInvocationUtils.LastInvocationAware.class, invocationValue);
+        Assert.notNull(argumentTuples);
+        DummyInvocationUtils.LastInvocationAware invocations =
+                (DummyInvocationUtils.LastInvocationAware) invocationValue;
 
-        return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
+        Method invokedMethod = invocations.getLastInvocation()
+                .getMethod();
+
+        MethodLinkMetadata metadata = getMethodLinkMetadata(invokedMethod.getDeclaringClass(), invokedMethod);
+
+        PartialUriTemplate partialUriTemplate = getPartialUriTemplate(metadata);
+
+        List<Object> classMappingParameters = getClassMappingParameters(invocations);
+
+        List<AffordanceBuilder> ret = new ArrayList<AffordanceBuilder>();
+        for (Object[] arguments : argumentTuples) {
+            ret.add(linkTo(metadata, partialUriTemplate, classMappingParameters, arguments));
+        }
+        return ret;
     }
 
     @Override
@@ -83,7 +142,7 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
 
         String mapping = MAPPING_DISCOVERER.getMapping(controller);
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(mapping == null ? "/" : mapping);
+        PartialUriTemplate partialUriTemplate = PartialUriTemplate.forTemplate(mapping == null ? "/" : mapping);
 
         Map<String, Object> values = new HashMap<String, Object>();
         Iterator<String> names = partialUriTemplate.getVariableNames()
@@ -102,144 +161,98 @@ public class AffordanceBuilderFactory implements MethodLinkBuilderFactory<Afford
     public AffordanceBuilder linkTo(Object invocationValue) {
 
         Assert.isInstanceOf(DummyInvocationUtils.LastInvocationAware.class, invocationValue);
-        DummyInvocationUtils.LastInvocationAware invocations = (DummyInvocationUtils.LastInvocationAware) invocationValue;
+        DummyInvocationUtils.LastInvocationAware invocations =
+                (DummyInvocationUtils.LastInvocationAware) invocationValue;
 
         DummyInvocationUtils.MethodInvocation invocation = invocations.getLastInvocation();
         Method invokedMethod = invocation.getMethod();
 
-        String pathMapping = MAPPING_DISCOVERER.getMapping(invokedMethod);
+        MethodLinkMetadata metadata = getMethodLinkMetadata(invokedMethod.getDeclaringClass(), invokedMethod);
 
-        List<String> params = getRequestParamNames(invokedMethod);
-        String query = StringUtils.join(params, ',');
-        String mapping = StringUtils.isBlank(query) ? pathMapping : pathMapping + "{?" + query + "}";
+        PartialUriTemplate partialUriTemplate = getPartialUriTemplate(metadata);
 
-        PartialUriTemplate partialUriTemplate = new PartialUriTemplate(AffordanceBuilder.getBuilder()
-                .build()
-                .toString() + mapping);
+        return linkTo(metadata, partialUriTemplate, getClassMappingParameters(invocations),
+                invocation.getArguments());
+    }
 
+    private static PartialUriTemplate getPartialUriTemplate(MethodLinkMetadata metadata) {
+        return PartialUriTemplate.forTemplate(AffordanceBuilder.getBaseUri() + metadata.getMapping());
+    }
+
+    private static List<Object> getClassMappingParameters(DummyInvocationUtils.LastInvocationAware invocations) {
+        List<Object> ret = new ArrayList<Object>();
         Iterator<Object> classMappingParameters = invocations.getObjectParameters();
+        while (classMappingParameters.hasNext()) {
+            ret.add(classMappingParameters.next());
+        }
+        return ret;
+    }
 
+    private AffordanceBuilder linkTo(MethodLinkMetadata metadata, PartialUriTemplate partialUriTemplate,
+                                     List<Object> classMappingParameters, Object[] arguments) {
         Map<String, Object> values = new HashMap<String, Object>();
         Iterator<String> names = partialUriTemplate.getVariableNames()
                 .iterator();
-        while (classMappingParameters.hasNext()) {
-            values.put(names.next(), classMappingParameters.next());
+        for (Object classMappingParameter : classMappingParameters) {
+            values.put(names.next(), classMappingParameter);
         }
-
-        for (Object argument : invocation.getArguments()) {
-            if (names.hasNext()) {
-                values.put(names.next(), argument);
+        // there may be more or less mapping variables than arguments
+        for (Object argument : arguments) {
+            if (!names.hasNext()) {
+                break;
             }
+            values.put(names.next(), argument);
         }
 
-        ActionDescriptor actionDescriptor = getActionDescriptor(
-                invocation.getMethod(), values, invocation.getArguments());
-
+        ActionDescriptor actionDescriptor = getActionDescriptor(metadata, values, arguments);
 
         return new AffordanceBuilder(partialUriTemplate.expand(values), Collections.singletonList(actionDescriptor));
-
     }
 
-    private List<String> getRequestParamNames(Method invokedMethod) {
-        MethodParameters parameters = new MethodParameters(invokedMethod);
-        final List<MethodParameter> requestParams = parameters.getParametersWith(RequestParam.class);
-        List<String> params = new ArrayList<String>(requestParams.size());
-        for (MethodParameter requestParam : requestParams) {
-            params.add(requestParam.getParameterName());
+    /**
+     * Gets link metadata of a controller method, introspecting the method only once.
+     *
+     * @param type   of controller, may be a subclass of the class declaring the method
+     * @param method of controller
+     * @return metadata
+     */
+    private MethodLinkMetadata getMethodLinkMetadata(Class<?> type, Method method) {
+        ConcurrentMap<Method, MethodLinkMetadata> metadataByMethod = methodLinkMetadata.get(type);
+        MethodLinkMetadata ret = metadataByMethod.get(method);
+        if (ret == null) {
+            ret = new MethodLinkMetadata(MAPPING_DISCOVERER, type, method);
+            metadataByMethod.putIfAbsent(method, ret);
         }
-        return params;
+        return ret;
     }
 
-    private ActionDescriptor getActionDescriptor(Method invokedMethod,
+    private ActionDescriptor getActionDescriptor(MethodLinkMetadata metadata,
                                                  Map<String, Object> values, Object[] arguments) {
-        RequestMethod httpMethod = getHttpMethod(invokedMethod);
+        ActionShape actionShape = metadata.getActionShape();
 
-        ActionDescriptor actionDescriptor = new ActionDescriptor(invokedMethod.getName(), httpMethod);
-        final Action actionAnnotation = AnnotationUtils.getAnnotation(invokedMethod, Action.class);
-        if (actionAnnotation != null) {
-            actionDescriptor.setSemanticActionType(actionAnnotation.value());
-        }
-        Map<String, ActionInputParameter> requestBodyMap = getActionInputParameters(RequestBody.class, invokedMethod,
-                arguments);
-
-        for (ActionInputParameter value : requestBodyMap.values()) {
-            actionDescriptor.setRequestBody(value);
-        }
+        // the uri template needs the formatted values of request params and path variables
+        putFormattedValues(values, actionShape.getRequestParams(), arguments);
+        putFormattedValues(values, actionShape.getPathVariables(), arguments);
 
-        // the action descriptor needs to know the param type, value and name
-        Map<String, ActionInputParameter> requestParamMap = getActionInputParameters(RequestParam.class, invokedMethod,
-                arguments);
-        for (Map.Entry<String, ActionInputParameter> entry : requestParamMap.entrySet()) {
-            ActionInputParameter value = entry.getValue();
-            if (value != null) {
-                final String key = entry.getKey();
-                actionDescriptor.addRequestParam(key, value);
-                if (!value.isRequestBody()) {
-                    values.put(key, value.getCallValueFormatted());
-                }
-            }
-        }
-
-        Map<String, ActionInputParameter> pathVariableMap = getActionInputParameters(PathVariable.class, invokedMethod,
-                arguments);
-        for (Map.Entry<String, ActionInputParameter> entry : pathVariableMap.entrySet()) {
-            ActionInputParameter actionInputParameter = entry.getValue();
-            if (actionInputParameter != null) {
-                final String key = entry.getKey();
-                actionDescriptor.addPathVariable(key, actionInputParameter);
-                if (!actionInputParameter.isRequestBody()) {
-                    values.put(key, actionInputParameter.getCallValueFormatted());
-                }
-            }
-        }
-        return actionDescriptor;
-    }
-
-    private static RequestMethod getHttpMethod(Method method) {
-        RequestMapping methodRequestMapping = AnnotationUtils.findAnnotation(method, RequestMapping.class);
-        RequestMethod requestMethod;
-        if (methodRequestMapping != null) {
-            RequestMethod[] methods = methodRequestMapping.method();
-            if (methods.length == 0) {
-                requestMethod = RequestMethod.GET;
-            } else {
-                requestMethod = methods[0];
-            }
-        } else {
-            requestMethod = RequestMethod.GET; // default
-        }
-        return requestMethod;
+        return actionShape.bind(arguments);
     }
 
-    /**
-     * Returns {@link ActionInputParameter}s contained in the method link.
-     *
-     * @param annotation to inspect
-     * @param method     must not be {@literal null}.
-     * @param arguments  to the method link
-     * @return maps parameter names to parameter info
-     */
-    private static Map<String, ActionInputParameter> getActionInputParameters(Class<? extends Annotation> annotation,
-                                                                              Method method, Object... arguments
-    ) {
-
-        Assert.notNull(method, "MethodInvocation must not be null!");
-
-        MethodParameters parameters = new MethodParameters(method);
-        Map<String, ActionInputParameter> result = new HashMap<String, ActionInputParameter>();
-
-        for (MethodParameter parameter : parameters.getParametersWith(annotation)) {
-            final int parameterIndex = parameter.getParameterIndex();
-            final Object argument;
-            if (parameterIndex < arguments.length) {
-                argument = arguments[parameterIndex];
-            } else {
-                argument = null;
+    private static void putFormattedValues(Map<String, Object> values, Map<String, ActionInputShape> inputShapes,
+                                           Object[] arguments) {
+        for (Map.Entry<String, ActionInputShape> entry : inputShapes.entrySet()) {
+            ActionInputShape inputShape = entry.getValue();
+            if (!inputShape.isRequestBody()) {
+                final int parameterIndex = inputShape.getMethodParameter()
+                        .getParameterIndex();
+                final Object argument;
+                if (parameterIndex < arguments.length) {
+                    argument = arguments[parameterIndex];
+                } else {
+                    argument = null;
+                }
+                values.put(entry.getKey(), inputShape.format(argument));
             }
-            result.put(parameter.getParameterName(), new ActionInputParameter(parameter, argument));
         }
-
-        return result;
     }
 
 }
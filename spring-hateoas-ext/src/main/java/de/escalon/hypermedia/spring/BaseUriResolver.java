@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Strategy to determine the base uri of links built by {@link AffordanceBuilder}, e.g. by evaluating headers of a
+ * proxy in front of the application. The base uri is resolved once per request.
+ */
+public interface BaseUriResolver {
+
+    /**
+     * Resolves base uri for the given request.
+     *
+     * @param request current request
+     * @return base uri, without trailing slash
+     */
+    String resolveBaseUri(HttpServletRequest request);
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the base uri from the current servlet mapping with the host tweaked in case the request contains an
+ * {@code X-Forwarded-Host} header, the port tweaked in case the request contains an {@code X-Forwarded-Port} header
+ * and the scheme tweaked in case the request contains an {@code X-Forwarded-Ssl} header.
+ */
+public class ForwardedHeaderBaseUriResolver implements BaseUriResolver {
+
+    @Override
+    public String resolveBaseUri(HttpServletRequest request) {
+        ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromServletMapping(request);
+
+        String forwardedSsl = request.getHeader("X-Forwarded-Ssl");
+
+        if (StringUtils.hasText(forwardedSsl) && forwardedSsl.equalsIgnoreCase("on")) {
+            builder.scheme("https");
+        }
+
+        String host = request.getHeader("X-Forwarded-Host");
+
+        if (!StringUtils.hasText(host)) {
+            return builder.build()
+                    .toString();
+        }
+
+        String[] hosts = StringUtils.commaDelimitedListToStringArray(host);
+        String hostToUse = hosts[0];
+
+        if (hostToUse.contains(":")) {
+
+            String[] hostAndPort = StringUtils.split(hostToUse, ":");
+
+            builder.host(hostAndPort[0]);
+            builder.port(Integer.parseInt(hostAndPort[1]));
+
+        } else {
+            builder.host(hostToUse);
+            builder.port(-1); // reset port if it was forwarded from default port
+        }
+
+        String port = request.getHeader("X-Forwarded-Port");
+
+        if (StringUtils.hasText(port)) {
+            builder.port(Integer.parseInt(port));
+        }
+
+        return builder.build()
+                .toString();
+    }
+}
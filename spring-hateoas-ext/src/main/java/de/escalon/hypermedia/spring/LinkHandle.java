@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import java.util.List;
+
+/**
+ * Precomputed link target for a controller method. Unlike {@link AffordanceBuilder#methodOn(Class, Object...)}, a
+ * handle needs no proxy and no recorded invocation: the arguments are passed directly and bound to the cached link
+ * metadata of the method. Handles are immutable and thread-safe.
+ * <p>
+ * Arguments are given in the order of the method parameters, as with {@link AffordanceBuilder#linkTo(Class,
+ * java.lang.reflect.Method, Object...)}. The spring-hateoas-ext-processor module generates typed link factories
+ * which hold a handle for each request mapped method of a controller.
+ * </p>
+ */
+public final class LinkHandle {
+
+    private final AffordanceBuilderFactory factory;
+    private final MethodLinkMetadata metadata;
+
+    LinkHandle(AffordanceBuilderFactory factory, MethodLinkMetadata metadata) {
+        this.factory = factory;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Creates builder for the given method arguments.
+     *
+     * @param arguments of the method
+     * @return builder
+     */
+    public AffordanceBuilder linkTo(Object... arguments) {
+        return factory.linkTo(metadata, arguments);
+    }
+
+    /**
+     * Creates one builder per argument tuple.
+     *
+     * @param argumentTuples arguments of the method, one array per affordance
+     * @return builders in the order of the argument tuples
+     */
+    public List<AffordanceBuilder> linksTo(Iterable<Object[]> argumentTuples) {
+        return factory.linksTo(metadata, argumentTuples);
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import de.escalon.hypermedia.action.Action;
+import de.escalon.hypermedia.action.ActionInputShape;
+import de.escalon.hypermedia.action.ActionShape;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.hateoas.core.MappingDiscoverer;
+import org.springframework.hateoas.core.MethodParameters;
+import org.springframework.web.bind.annotation.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Everything about a controller method which is needed to link to it and which does not depend on the invocation
+ * arguments: mapping template and the {@link ActionShape} of the method. Created once per controller class and method
+ * by {@link AffordanceBuilderFactory}.
+ */
+final class MethodLinkMetadata {
+
+    private final String mapping;
+    private final ActionShape actionShape;
+
+    MethodLinkMetadata(MappingDiscoverer mappingDiscoverer, Class<?> type, Method method) {
+        MethodParameters parameters = new MethodParameters(method);
+
+        String pathMapping = mappingDiscoverer.getMapping(type, method);
+        List<String> requestParamNames = new ArrayList<String>();
+        for (MethodParameter requestParam : parameters.getParametersWith(RequestParam.class)) {
+            requestParamNames.add(requestParam.getParameterName());
+        }
+        String query = StringUtils.join(requestParamNames, ',');
+        this.mapping = StringUtils.isBlank(query) ? pathMapping : pathMapping + "{?" + query + "}";
+
+        Action actionAnnotation = AnnotationUtils.getAnnotation(method, Action.class);
+        ActionInputShape requestBody = null;
+        for (ActionInputShape requestBodyShape : getShapesByName(parameters, RequestBody.class).values()) {
+            requestBody = requestBodyShape;
+        }
+        this.actionShape = new ActionShape(method.getName(), getHttpMethod(method),
+                actionAnnotation == null ? null : actionAnnotation.value(), requestBody,
+                getShapesByName(parameters, RequestParam.class), getShapesByName(parameters, PathVariable.class));
+    }
+
+    /**
+     * Collects shapes of parameters having the given annotation. The map is a HashMap, so that action descriptors
+     * keep the parameter order they had before shapes were cached.
+     */
+    private static Map<String, ActionInputShape> getShapesByName(MethodParameters parameters,
+                                                                 Class<? extends Annotation> annotation) {
+        Map<String, ActionInputShape> ret = new HashMap<String, ActionInputShape>();
+        for (MethodParameter parameter : parameters.getParametersWith(annotation)) {
+            ret.put(parameter.getParameterName(), new ActionInputShape(parameter, null));
+        }
+        return ret;
+    }
+
+    private static RequestMethod getHttpMethod(Method method) {
+        RequestMapping methodRequestMapping = AnnotationUtils.findAnnotation(method, RequestMapping.class);
+        RequestMethod requestMethod;
+        if (methodRequestMapping != null) {
+            RequestMethod[] methods = methodRequestMapping.method();
+            if (methods.length == 0) {
+                requestMethod = RequestMethod.GET;
+            } else {
+                requestMethod = methods[0];
+            }
+        } else {
+            requestMethod = RequestMethod.GET; // default
+        }
+        return requestMethod;
+    }
+
+    /**
+     * Gets mapping of the method, relative to the servlet mapping, with request params as query template.
+     *
+     * @return mapping, e.g. /events/{eventId}{?eventName}
+     */
+    public String getMapping() {
+        return mapping;
+    }
+
+    public ActionShape getActionShape() {
+        return actionShape;
+    }
+}
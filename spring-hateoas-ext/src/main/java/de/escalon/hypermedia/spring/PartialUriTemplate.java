@@ -16,24 +16,61 @@ import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.TemplateVariable.VariableType;
 import org.springframework.util.Assert;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Uri template which can be expanded partially. The template is compiled once into its literal and variable parts,
+ * expansion only walks these parts. Templates are immutable, use {@link #forTemplate(String)} to share the compiled
+ * form of frequently used templates.
  * Created by dschulten on 01.12.2014.
  */
 public class PartialUriTemplate {
 
-    private static final Pattern VARIABLE_REGEX = Pattern.compile("\\{([\\?\\&#/]?)([\\w\\,]+)(:??.*?)\\}");
+    /**
+     * Limits the number of cached templates. Templates usually contain the base uri of the current request, so
+     * unusual Host headers must not make the cache grow without bounds.
+     */
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    private static final ConcurrentMap<String, PartialUriTemplate> TEMPLATES =
+            new ConcurrentHashMap<String, PartialUriTemplate>();
+
+    private static final TemplateVariable[] NO_VARIABLES = new TemplateVariable[0];
 
-    private final List<String> urlComponents = new ArrayList<String>();
+    private static final int BASE_URI_PART = 0;
+    private static final int QUERY_PART = 1;
+    private static final int FRAGMENT_PART = 2;
 
-    private final List<List<Integer>> variableIndices = new ArrayList<List<Integer>>();
-    private List<TemplateVariable> variables = new ArrayList<TemplateVariable>();
-    private List<String> variableNames = new ArrayList<String>();
+    private final String template;
+
+    private final String[] urlComponents;
+    private final TemplateVariable[][] variablesInComponents;
+    private final int[] literalPartTypes;
+    private final List<String> variableNames;
+
+    /**
+     * Gets template from the template cache, compiling the template string on first access.
+     *
+     * @param template must not be {@literal null} or empty.
+     * @return template
+     */
+    public static PartialUriTemplate forTemplate(String template) {
+        Assert.hasText(template, "Template must not be null or empty!");
+        PartialUriTemplate ret = TEMPLATES.get(template);
+        if (ret == null) {
+            ret = new PartialUriTemplate(template);
+            if (TEMPLATES.size() >= MAX_CACHED_TEMPLATES) {
+                TEMPLATES.clear();
+            }
+            PartialUriTemplate existing = TEMPLATES.putIfAbsent(template, ret);
+            if (existing != null) {
+                ret = existing;
+            }
+        }
+        return ret;
+    }
 
     /**
      * Creates a new {@link PartialUriTemplate} using the given template string.
@@ -42,63 +79,140 @@ public class PartialUriTemplate {
      */
     public PartialUriTemplate(String template) {
         Assert.hasText(template, "Template must not be null or empty!");
+        this.template = template;
 
-        Matcher matcher = VARIABLE_REGEX.matcher(template);
-        // first group is the variable start without leading {: "", "/", "?", "#",
-        // second group is the comma-separated name list without the trailing } of the variable
+        List<String> components = new ArrayList<String>();
+        List<TemplateVariable[]> variablesInParts = new ArrayList<TemplateVariable[]>();
+        List<String> names = new ArrayList<String>();
+
+        final int length = template.length();
         int endOfPart = 0;
-        while (matcher.find()) {
+        int searchFrom = 0;
+        int startOfPart;
+        // a variable expression is {, an optional operator, a non-empty name list and anything up to the next }
+        while ((startOfPart = template.indexOf('{', searchFrom)) != -1) {
+            searchFrom = startOfPart + 1;
+            int startOfNames = startOfPart + 1;
+            char operator = startOfNames < length ? template.charAt(startOfNames) : 0;
+            if (operator == '?' || operator == '&' || operator == '#' || operator == '/') {
+                startOfNames++;
+            } else {
+                operator = 0;
+            }
+            int endOfNames = startOfNames;
+            while (endOfNames < length && isNameChar(template.charAt(endOfNames))) {
+                endOfNames++;
+            }
+            if (endOfNames == startOfNames) {
+                continue;
+            }
+            int endOfVariable = indexOfVariableEnd(template, endOfNames);
+            if (endOfVariable == -1) {
+                continue;
+            }
 
-            // 0 is the current match, i.e. the entire variable expression
-            int startOfPart = matcher.start(0);
-            // add part before current match
+            // add part before current variable expression
             if (endOfPart < startOfPart) {
-                final String partWithoutVariables = template.substring(endOfPart, startOfPart);
-                final StringTokenizer stringTokenizer = new StringTokenizer(partWithoutVariables, "?", true);
-                boolean inQuery = false;
-                while (stringTokenizer.hasMoreTokens()) {
-                    final String token = stringTokenizer.nextToken();
-                    if ("?".equals(token)) {
-                        inQuery = true;
-                    } else {
-                        if (!inQuery) {
-                            urlComponents.add(token);
-                        } else {
-                            urlComponents.add("?" + token);
-                        }
-                        variableIndices.add(Collections.<Integer>emptyList());
-                    }
+                addLiteralComponents(template.substring(endOfPart, startOfPart), components, variablesInParts);
+            }
+            endOfPart = endOfVariable + 1;
+            searchFrom = endOfPart;
 
-                }
+            // add variable expression as part and track which variables it contains
+            components.add(template.substring(startOfPart, endOfPart));
+            TemplateVariable.VariableType type = TemplateVariable.VariableType.from(
+                    operator == 0 ? "" : String.valueOf(operator));
+            List<String> namesInPart = splitNames(template, startOfNames, endOfNames);
+            TemplateVariable[] variablesInPart = new TemplateVariable[namesInPart.size()];
+            for (int i = 0; i < variablesInPart.length; i++) {
+                String name = namesInPart.get(i);
+                variablesInPart[i] = new TemplateVariable(name, type);
+                names.add(name);
+            }
+            variablesInParts.add(variablesInPart);
+        }
+        // finish off remaining part
+        if (endOfPart < length) {
+            components.add(template.substring(endOfPart));
+            variablesInParts.add(NO_VARIABLES);
+        }
 
+        this.urlComponents = components.toArray(new String[components.size()]);
+        this.variablesInComponents = variablesInParts.toArray(new TemplateVariable[variablesInParts.size()][]);
+        this.literalPartTypes = new int[urlComponents.length];
+        for (int i = 0; i < urlComponents.length; i++) {
+            String part = urlComponents[i];
+            if (part.startsWith("?") || part.startsWith("&")) {
+                literalPartTypes[i] = QUERY_PART;
+            } else if (part.startsWith("#")) {
+                literalPartTypes[i] = FRAGMENT_PART;
+            } else {
+                literalPartTypes[i] = BASE_URI_PART;
             }
-            endOfPart = matcher.end(0);
-
-            // add current match as part
-            final String variablePart = template.substring(startOfPart, endOfPart);
-            urlComponents.add(variablePart);
-
-            // collect variablesInPart and track for each part which variables it contains
-            // group(1) is the variable head without the leading {
-            TemplateVariable.VariableType type = TemplateVariable.VariableType.from(matcher.group(1));
-            // group(2) is the
-            String[] names = matcher.group(2)
-                    .split(",");
-            List<Integer> variablesInPart = new ArrayList<Integer>();
-            for (String name : names) {
-                TemplateVariable variable = new TemplateVariable(name, type);
-                variablesInPart.add(variables.size());
-                variables.add(variable);
-                variableNames.add(name);
+        }
+        this.variableNames = Collections.unmodifiableList(names);
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == ',';
+    }
+
+    /**
+     * Finds the closing brace of a variable expression. Trailing modifiers such as <code>:.+</code> become part of the
+     * expression, but an expression cannot span lines.
+     */
+    private static int indexOfVariableEnd(String template, int from) {
+        for (int i = from; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '}') {
+                return i;
+            } else if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
             }
-            variableIndices.add(variablesInPart);
         }
-        // finish off remaining part
-        if (endOfPart < template.length()) {
-            urlComponents.add(template.substring(endOfPart));
-            variableIndices.add(Collections.<Integer>emptyList());
+        return -1;
+    }
+
+    /**
+     * Splits comma-separated names, dropping trailing empty names like {@link String#split(String)}.
+     */
+    private static List<String> splitNames(String template, int start, int end) {
+        List<String> ret = new ArrayList<String>(4);
+        int startOfName = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || template.charAt(i) == ',') {
+                ret.add(template.substring(startOfName, i));
+                startOfName = i + 1;
+            }
+        }
+        while (!ret.isEmpty() && ret.get(ret.size() - 1)
+                .isEmpty()) {
+            ret.remove(ret.size() - 1);
         }
+        return ret;
+    }
 
+    /**
+     * Adds a part without variables, split before each question mark.
+     */
+    private static void addLiteralComponents(String partWithoutVariables, List<String> components,
+                                             List<TemplateVariable[]> variablesInParts) {
+        boolean inQuery = false;
+        int startOfToken = 0;
+        final int length = partWithoutVariables.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || partWithoutVariables.charAt(i) == '?') {
+                if (startOfToken < i) {
+                    String token = partWithoutVariables.substring(startOfToken, i);
+                    components.add(inQuery ? "?" + token : token);
+                    variablesInParts.add(NO_VARIABLES);
+                }
+                if (i < length) {
+                    inQuery = true;
+                }
+                startOfToken = i + 1;
+            }
+        }
     }
 
     public List<String> getVariableNames() {
@@ -122,39 +236,45 @@ public class PartialUriTemplate {
     private UriTemplateComponents getUriTemplateComponents(Map<String, Object> parameters, List<String> requiredArgs) {
         Assert.notNull(parameters, "Parameters must not be null!");
 
-        final StringBuilder baseUrl = new StringBuilder(urlComponents.get(0));
-        final StringBuilder queryHead = new StringBuilder();
-        final StringBuilder queryTail = new StringBuilder();
-        final StringBuilder fragmentIdentifier = new StringBuilder();
-        for (int i = 1; i < urlComponents.size(); i++) {
-            final String part = urlComponents.get(i);
-            final List<Integer> variablesInPart = variableIndices.get(i);
-            if (variablesInPart.isEmpty()) {
-                if (part.startsWith("?") || part.startsWith("&")) {
-                    queryHead.append(part);
-                } else if (part.startsWith("#")) {
-                    fragmentIdentifier.append(part);
-                } else {
-                    baseUrl.append(part);
+        // query and fragment buffers are only needed by some templates, allocate them on demand
+        final StringBuilder baseUrl = new StringBuilder(template.length() + 16);
+        baseUrl.append(urlComponents[0]);
+        StringBuilder queryHead = null;
+        StringBuilder queryTail = null;
+        StringBuilder fragmentIdentifier = null;
+        for (int i = 1; i < urlComponents.length; i++) {
+            final TemplateVariable[] variablesInPart = variablesInComponents[i];
+            if (variablesInPart.length == 0) {
+                final String part = urlComponents[i];
+                switch (literalPartTypes[i]) {
+                    case QUERY_PART:
+                        queryHead = append(queryHead, part);
+                        break;
+                    case FRAGMENT_PART:
+                        fragmentIdentifier = append(fragmentIdentifier, part);
+                        break;
+                    default:
+                        baseUrl.append(part);
                 }
             } else {
-                for (Integer variableInPart : variablesInPart) {
-                    final TemplateVariable variable = variables.get(variableInPart);
+                for (TemplateVariable variable : variablesInPart) {
                     final Object value = parameters.get(variable.getName());
                     if (value == null) {
                         switch (variable.getType()) {
                             case REQUEST_PARAM:
                             case REQUEST_PARAM_CONTINUED:
-                                if(requiredArgs.isEmpty() || requiredArgs.contains(variable.getName())) {
+                                if (requiredArgs.isEmpty() || requiredArgs.contains(variable.getName())) {
                                     // query vars without value always go last (query tail)
-                                    if (queryTail.length() > 0) {
+                                    if (queryTail == null) {
+                                        queryTail = new StringBuilder();
+                                    } else {
                                         queryTail.append(',');
                                     }
                                     queryTail.append(variable.getName());
                                 }
                                 break;
                             case FRAGMENT:
-                                fragmentIdentifier.append(variable.toString());
+                                fragmentIdentifier = append(fragmentIdentifier, variable.toString());
                                 break;
                             default:
                                 baseUrl.append(variable.toString());
@@ -163,29 +283,29 @@ public class PartialUriTemplate {
                         switch (variable.getType()) {
                             case REQUEST_PARAM:
                             case REQUEST_PARAM_CONTINUED:
-                                if (queryHead.length() == 0) {
-                                    queryHead.append('?');
+                                if (queryHead == null || queryHead.length() == 0) {
+                                    queryHead = append(queryHead, "?");
                                 } else {
                                     queryHead.append('&');
                                 }
                                 queryHead.append(variable.getName())
-                                        .append('=')
-                                        .append(urlEncode(value.toString()));
+                                        .append('=');
+                                PercentEncoder.appendEncoded(queryHead, value.toString());
                                 break;
                             case SEGMENT:
                                 baseUrl.append('/');
                                 // fall through
                             case PATH_VARIABLE:
-                                if (queryHead.length() != 0) {
+                                if (queryHead != null && queryHead.length() != 0) {
                                     // level 1 variable in query
-                                    queryHead.append(urlEncode(value.toString()));
+                                    PercentEncoder.appendEncoded(queryHead, value.toString());
                                 } else {
-                                    baseUrl.append(urlEncode(value.toString()));
+                                    PercentEncoder.appendEncoded(baseUrl, value.toString());
                                 }
                                 break;
                             case FRAGMENT:
-                                fragmentIdentifier.append('#');
-                                fragmentIdentifier.append(urlEncode(value.toString()));
+                                fragmentIdentifier = append(fragmentIdentifier, "#");
+                                PercentEncoder.appendEncoded(fragmentIdentifier, value.toString());
                                 break;
                         }
                     }
@@ -193,21 +313,33 @@ public class PartialUriTemplate {
             }
         }
 
-
-        return new UriTemplateComponents(baseUrl.toString(), queryHead.toString(), queryTail.toString(),
-                fragmentIdentifier.toString());
+        return new UriTemplateComponents(baseUrl.toString(), asString(queryHead), asString(queryTail),
+                asString(fragmentIdentifier));
     }
 
-    private String urlEncode(String s) {
-        try {
-            return URLEncoder.encode(s, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new IllegalStateException("failed to urlEncode " + s, e);
+    private static StringBuilder append(StringBuilder sb, String s) {
+        if (sb == null) {
+            return new StringBuilder(s);
         }
+        return sb.append(s);
+    }
+
+    private static String asString(StringBuilder sb) {
+        return sb == null ? "" : sb.toString();
     }
 
     public String stripOptionalVariables(List<ActionDescriptor> actionDescriptors) {
-        return getUriTemplateComponents(Collections.<String, Object>emptyMap(), getRequiredArgNames(actionDescriptors)).toString();
+        return stripOptionalVariableComponents(actionDescriptors).toString();
+    }
+
+    /**
+     * Returns components without variables which are neither expanded nor required by one of the action descriptors.
+     *
+     * @param actionDescriptors defining required variables
+     * @return components
+     */
+    UriTemplateComponents stripOptionalVariableComponents(List<ActionDescriptor> actionDescriptors) {
+        return getUriTemplateComponents(Collections.<String, Object>emptyMap(), getRequiredArgNames(actionDescriptors));
     }
 
     private List<String> getRequiredArgNames(List<ActionDescriptor> actionDescriptors) {
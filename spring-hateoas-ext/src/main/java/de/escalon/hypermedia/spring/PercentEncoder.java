@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+/**
+ * Table-driven percent encoder which appends to the target buffer without intermediate strings. The output is
+ * identical to {@link java.net.URLEncoder#encode(String, String)} with UTF-8: unreserved characters are kept, space
+ * becomes {@code +}, everything else is percent-encoded as UTF-8.
+ */
+final class PercentEncoder {
+
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['*'] = true;
+    }
+
+    private PercentEncoder() {
+        // prevent instantiation
+    }
+
+    /**
+     * Appends the encoded value.
+     *
+     * @param target to append to
+     * @param value  to encode
+     */
+    static void appendEncoded(StringBuilder target, CharSequence value) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                if (UNRESERVED[c]) {
+                    target.append(c);
+                } else if (c == ' ') {
+                    target.append('+');
+                } else {
+                    appendByte(target, c);
+                }
+            } else if (c < 0x800) {
+                appendByte(target, 0xC0 | (c >> 6));
+                appendByte(target, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendByte(target, 0xF0 | (codePoint >> 18));
+                appendByte(target, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(target, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(target, 0x80 | (codePoint & 0x3F));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // like String.getBytes, replace unpaired surrogates by '?'
+                appendByte(target, '?');
+            } else {
+                appendByte(target, 0xE0 | (c >> 12));
+                appendByte(target, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(target, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendByte(StringBuilder target, int b) {
+        target.append('%')
+                .append(HEX[(b >> 4) & 0xF])
+                .append(HEX[b & 0xF]);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
+import org.springframework.util.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Resources whose content is read from an iterator while the response is rendered, e.g. from a database cursor,
+ * rather than being collected into memory first. The content can be iterated only once. If the iterator is
+ * {@link Closeable}, message converters which stream the content close it when they are done.
+ * <p>
+ * Message converters which do not stream the content call {@link #getContent()}, which reads the remaining items
+ * into a list.
+ * </p>
+ */
+public class StreamingResources<T> extends Resources<T> {
+
+    private Iterator<T> source;
+    private Collection<T> materialized;
+
+    /**
+     * Creates streaming resources.
+     *
+     * @param content iterator over the content, must not be null
+     * @param links   of the resources
+     */
+    public StreamingResources(Iterator<T> content, Link... links) {
+        Assert.notNull(content, "content must not be null");
+        this.source = content;
+        add(Arrays.asList(links));
+    }
+
+    /**
+     * Creates streaming resources which iterate over the given content once.
+     *
+     * @param content to iterate over, must not be null
+     * @param links   of the resources
+     */
+    public StreamingResources(Iterable<T> content, Link... links) {
+        this(content.iterator(), links);
+    }
+
+    /**
+     * Hands out the iterator over the content. Unless the content has been read by {@link #getContent()}, the
+     * iterator can be obtained only once.
+     *
+     * @return iterator over the content
+     * @throws IllegalStateException if the iterator has been obtained before
+     */
+    @Override
+    public Iterator<T> iterator() {
+        if (materialized != null) {
+            return materialized.iterator();
+        }
+        Assert.state(source != null, "content of streaming resources can be iterated only once");
+        Iterator<T> ret = source;
+        source = null;
+        return ret;
+    }
+
+    /**
+     * Reads the remaining content into memory, for consumers which cannot stream it. A {@link Closeable} iterator
+     * is closed when it has been read.
+     *
+     * @return unmodifiable content
+     * @throws IllegalStateException if the iterator has been obtained before or cannot be closed
+     */
+    @Override
+    public Collection<T> getContent() {
+        if (materialized == null) {
+            Iterator<T> items = iterator();
+            List<T> content = new ArrayList<T>();
+            try {
+                while (items.hasNext()) {
+                    content.add(items.next());
+                }
+            } finally {
+                if (items instanceof Closeable) {
+                    try {
+                        ((Closeable) items).close();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("failed to close content of streaming resources", e);
+                    }
+                }
+            }
+            materialized = Collections.unmodifiableList(content);
+        }
+        return materialized;
+    }
+
+    @Override
+    public String toString() {
+        // must not consume the content
+        return String.format("StreamingResources { links: %s }", getLinks());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
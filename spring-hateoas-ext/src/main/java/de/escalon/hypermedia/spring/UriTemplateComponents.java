@@ -22,6 +22,7 @@ public class UriTemplateComponents {
     private String queryHead;
     private String queryTail;
     private String fragmentIdentifier;
+    private String uri;
 
     /**
      * Represents components of a Uri Template with variables.
@@ -58,20 +59,19 @@ public class UriTemplateComponents {
     }
 
     public String getQuery() {
-        StringBuilder query = new StringBuilder();
-        if (queryTail.length() > 0) {
-            if (queryHead.length() == 0) {
-                query.append("{?")
-                        .append(queryTail)
-                        .append("}");
-            } else if (queryHead.length() > 0) {
-                query.append(queryHead)
-                        .append("{&")
-                        .append(queryTail)
-                        .append("}");
-            }
+        if (queryTail.length() == 0) {
+            return queryHead;
+        }
+        StringBuilder query = new StringBuilder(queryHead.length() + queryTail.length() + 3);
+        if (queryHead.length() == 0) {
+            query.append("{?")
+                    .append(queryTail)
+                    .append("}");
         } else {
-            query.append(queryHead);
+            query.append(queryHead)
+                    .append("{&")
+                    .append(queryTail)
+                    .append("}");
         }
         return query.toString();
     }
@@ -86,7 +86,21 @@ public class UriTemplateComponents {
      * @return uri String
      */
     public String toString() {
-        return baseUri + StringUtils.defaultString(getQuery()) + StringUtils.defaultString(fragmentIdentifier);
+        String ret = uri;
+        if (ret == null) {
+            String query = getQuery();
+            if (query.length() == 0 && fragmentIdentifier.length() == 0) {
+                ret = baseUri;
+            } else {
+                ret = new StringBuilder(baseUri.length() + query.length() + fragmentIdentifier.length())
+                        .append(baseUri)
+                        .append(query)
+                        .append(fragmentIdentifier)
+                        .toString();
+            }
+            uri = ret;
+        }
+        return ret;
     }
 
     public boolean hasVariables() {
@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.ClassCache;
+import de.escalon.hypermedia.ClassMetadata;
+import de.escalon.hypermedia.DataType;
+import de.escalon.hypermedia.PropertyAccessor;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.GenericCollectionTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Creates a bean from form values. The binder of a class is compiled once: it knows the constructor which creates
+ * the bean, how to bind each {@link JsonProperty} argument of a {@link JsonCreator} constructor and how to bind each
+ * writable bean property, including the conversion of form values to the argument or property type.
+ * <p>
+ * Form values are flat, as rendered by {@link XhtmlWriter}: the fields of a nested bean have their plain names, and
+ * the fields of beans in a collection are repeated once per item. The n-th item of a collection of beans is bound
+ * from the n-th values of its fields.
+ * </p>
+ * <p>
+ * Form values are bound once: a writable property which has the name of a constructor argument is not set again
+ * after construction.
+ * </p>
+ */
+final class BeanBinder {
+
+    private static final ClassCache<BeanBinder> BINDERS = new ClassCache<BeanBinder>() {
+        @Override
+        protected BeanBinder compute(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Constructor<?> constructor;
+    private final ValueBinding[] arguments;
+    private final PropertyBinding[] properties;
+    /**
+     * Names of form values bound directly to arguments or properties, without nested beans.
+     */
+    private final Set<String> valueNames;
+
+    private BeanBinder(Class<?> type, Constructor<?> constructor, ValueBinding[] arguments,
+                       PropertyBinding[] properties) {
+        this.type = type;
+        this.constructor = constructor;
+        this.arguments = arguments;
+        this.properties = properties;
+        Set<String> names = new HashSet<String>();
+        for (ValueBinding argument : arguments) {
+            if (!(argument instanceof BeanBinding)) {
+                names.add(argument.name);
+            }
+        }
+        for (PropertyBinding property : properties) {
+            if (!(property.binding instanceof BeanBinding)) {
+                names.add(property.binding.name);
+            }
+        }
+        this.valueNames = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Gets binder for a class.
+     *
+     * @param type of bean to bind
+     * @return shared binder
+     * @throws IllegalArgumentException if the type is a map or collection, or has neither a default constructor nor
+     *                                  a {@link JsonCreator} with {@link JsonProperty} arguments only
+     */
+    static BeanBinder forClass(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Creates bean from form values.
+     *
+     * @param formValues to bind
+     * @return new bean
+     */
+    Object bind(MultiValueMap<String, String> formValues) {
+        return bind(formValues, new HashSet<Class<?>>());
+    }
+
+    private Object bind(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+        path.add(type);
+        try {
+            Object[] args = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                args[i] = arguments[i].bind(formValues, path);
+            }
+            Object ret = constructor.newInstance(args);
+            for (PropertyBinding property : properties) {
+                if (property.binding.isPresent(formValues, path)) {
+                    property.accessor.setValue(ret, property.binding.bind(formValues, path));
+                }
+            }
+            return ret;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to instantiate bean " + type.getName(), e);
+        } finally {
+            path.remove(type);
+        }
+    }
+
+    private boolean hasValues(MultiValueMap<String, String> formValues) {
+        for (String valueName : valueNames) {
+            if (formValues.containsKey(valueName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BeanBinder compile(Class<?> type) {
+        if (Map.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Map not supported");
+        } else if (Collection.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Collection not supported");
+        }
+        BeanCreator creator = BeanCreator.forType(type);
+        List<ValueBinding> arguments = new ArrayList<ValueBinding>(creator.arguments.size());
+        Set<String> argumentNames = new HashSet<String>();
+        for (BeanCreator.Argument argument : creator.arguments) {
+            arguments.add(createBinding(argument.name, argument.type, argument.methodParameter));
+            argumentNames.add(argument.name);
+        }
+
+        List<PropertyBinding> properties = new ArrayList<PropertyBinding>();
+        for (PropertyAccessor propertyAccessor : ClassMetadata.forClass(type)
+                .getPropertyAccessors()) {
+            // skip properties whose values the constructor has consumed already
+            if (propertyAccessor.isWritable() && !argumentNames.contains(propertyAccessor.getName())) {
+                Class<?> propertyType = propertyAccessor.getPropertyType();
+                MethodParameter methodParameter = new MethodParameter(propertyAccessor.getWriteMethod(), 0);
+                if (isBindableProperty(propertyType, methodParameter)) {
+                    properties.add(new PropertyBinding(propertyAccessor, createBinding(propertyAccessor.getName(),
+                            propertyType, methodParameter)));
+                }
+            }
+        }
+        return new BeanBinder(type, creator.constructor, arguments.toArray(new ValueBinding[arguments.size()]),
+                properties.toArray(new PropertyBinding[properties.size()]));
+    }
+
+    private static ValueBinding createBinding(String name, Class<?> valueType, MethodParameter methodParameter) {
+        if (DataType.isSingleValueType(valueType)) {
+            return new ScalarBinding(name, valueType);
+        } else if (DataType.isArrayOrCollection(valueType)) {
+            return new CollectionBinding(name, valueType, getElementType(valueType, methodParameter));
+        } else {
+            return new BeanBinding(name, valueType);
+        }
+    }
+
+    private static Class<?> getElementType(Class<?> valueType, MethodParameter methodParameter) {
+        Class<?> elementType;
+        if (valueType.isArray()) {
+            elementType = valueType.getComponentType();
+        } else {
+            elementType = GenericCollectionTypeResolver.getCollectionParameterType(methodParameter);
+            if (elementType == null) {
+                elementType = String.class;
+            }
+        }
+        return elementType;
+    }
+
+    /**
+     * Determines if a writable property can be bound. Unlike constructor arguments, properties which cannot be bound
+     * are left alone.
+     */
+    private static boolean isBindableProperty(Class<?> propertyType, MethodParameter methodParameter) {
+        if (DataType.isSingleValueType(propertyType)) {
+            return true;
+        } else if (DataType.isArrayOrCollection(propertyType)) {
+            Class<?> elementType = getElementType(propertyType, methodParameter);
+            return DataType.isSingleValueType(elementType) || isBean(elementType);
+        } else {
+            return isBean(propertyType);
+        }
+    }
+
+    /**
+     * Determines if type can be bound as nested bean.
+     */
+    private static boolean isBean(Class<?> type) {
+        return !type.isInterface() && !Modifier.isAbstract(type.getModifiers()) && !type.isArray()
+                && !Map.class.isAssignableFrom(type) && !Collection.class.isAssignableFrom(type)
+                && BeanCreator.findCreator(type) != null;
+    }
+
+    private static final class PropertyBinding {
+        final PropertyAccessor accessor;
+        final ValueBinding binding;
+
+        PropertyBinding(PropertyAccessor accessor, ValueBinding binding) {
+            this.accessor = accessor;
+            this.binding = binding;
+        }
+    }
+
+    /**
+     * Binds a constructor argument or property.
+     */
+    private abstract static class ValueBinding {
+        final String name;
+
+        ValueBinding(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Determines if the form has values for a property, so that its setter should be called.
+         */
+        abstract boolean isPresent(MultiValueMap<String, String> formValues, Set<Class<?>> path);
+
+        abstract Object bind(MultiValueMap<String, String> formValues, Set<Class<?>> path);
+    }
+
+    private static final class ScalarBinding extends ValueBinding {
+        final ValueConverter converter;
+
+        ScalarBinding(String name, Class<?> type) {
+            super(name);
+            this.converter = ValueConverter.forType(type);
+        }
+
+        @Override
+        boolean isPresent(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            List<String> values = formValues.get(name);
+            return values != null && values.size() == 1;
+        }
+
+        @Override
+        Object bind(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            List<String> values = formValues.get(name);
+            if (values == null) {
+                return null;
+            }
+            if (values.size() != 1) {
+                throw new IllegalArgumentException("variable list not supported for single value " + name);
+            }
+            return converter.convert(values.get(0));
+        }
+    }
+
+    private static final class CollectionBinding extends ValueBinding {
+        final Class<?> type;
+        final Class<?> elementType;
+        /**
+         * Converts single value items, null for items which are beans.
+         */
+        final ValueConverter converter;
+
+        CollectionBinding(String name, Class<?> type, Class<?> elementType) {
+            super(name);
+            this.type = type;
+            this.elementType = elementType;
+            this.converter = DataType.isSingleValueType(elementType) ? ValueConverter.forType(elementType) : null;
+        }
+
+        @Override
+        boolean isPresent(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            if (converter != null) {
+                return formValues.containsKey(name);
+            }
+            return !path.contains(elementType) && BeanBinder.forClass(elementType)
+                    .hasValues(formValues);
+        }
+
+        @Override
+        Object bind(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            List<Object> items;
+            if (converter != null) {
+                List<String> values = formValues.get(name);
+                if (values == null) {
+                    return null;
+                }
+                items = new ArrayList<Object>(values.size());
+                for (String value : values) {
+                    items.add(converter.convert(value));
+                }
+            } else {
+                if (path.contains(elementType)) {
+                    return null;
+                }
+                items = bindItems(BeanBinder.forClass(elementType), formValues, path);
+            }
+            if (type.isArray()) {
+                Object ret = Array.newInstance(elementType, items.size());
+                for (int i = 0; i < items.size(); i++) {
+                    Array.set(ret, i, items.get(i));
+                }
+                return ret;
+            }
+            Collection<Object> ret = CollectionFactory.createCollection(type, items.size());
+            ret.addAll(items);
+            return ret;
+        }
+
+        private static List<Object> bindItems(BeanBinder elementBinder, MultiValueMap<String, String> formValues,
+                                              Set<Class<?>> path) {
+            int count = 0;
+            for (String valueName : elementBinder.valueNames) {
+                List<String> values = formValues.get(valueName);
+                if (values != null) {
+                    count = Math.max(count, values.size());
+                }
+            }
+            List<Object> items = new ArrayList<Object>(count);
+            for (int i = 0; i < count; i++) {
+                MultiValueMap<String, String> itemValues = new LinkedMultiValueMap<String, String>(formValues.size());
+                for (Map.Entry<String, List<String>> entry : formValues.entrySet()) {
+                    List<String> values = entry.getValue();
+                    if (i < values.size()) {
+                        itemValues.add(entry.getKey(), values.get(i));
+                    }
+                }
+                items.add(elementBinder.bind(itemValues, path));
+            }
+            return items;
+        }
+    }
+
+    private static final class BeanBinding extends ValueBinding {
+        final Class<?> type;
+
+        BeanBinding(String name, Class<?> type) {
+            super(name);
+            this.type = type;
+        }
+
+        @Override
+        boolean isPresent(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            return !path.contains(type) && BeanBinder.forClass(type)
+                    .hasValues(formValues);
+        }
+
+        @Override
+        Object bind(MultiValueMap<String, String> formValues, Set<Class<?>> path) {
+            if (path.contains(type)) {
+                // a bean cannot contain itself in a flat form
+                return null;
+            }
+            return BeanBinder.forClass(type)
+                    .bind(formValues, path);
+        }
+    }
+
+    /**
+     * Converts a form value to the type of an argument or property, like {@link DataType#asType}.
+     */
+    private abstract static class ValueConverter {
+
+        private static final ValueConverter STRING = new ValueConverter() {
+            @Override
+            Object convert(String value) {
+                return value;
+            }
+        };
+
+        private static final ValueConverter INTEGER = new ValueConverter() {
+            @Override
+            Object convert(String value) {
+                return Integer.parseInt(value);
+            }
+        };
+
+        private static final ValueConverter LONG = new ValueConverter() {
+            @Override
+            Object convert(String value) {
+                return Long.parseLong(value);
+            }
+        };
+
+        abstract Object convert(String value);
+
+        static ValueConverter forType(final Class<?> type) {
+            if (String.class == type) {
+                return STRING;
+            } else if (DataType.isInteger(type)) {
+                return INTEGER;
+            } else if (DataType.isLong(type)) {
+                return LONG;
+            } else if (type.isEnum()) {
+                return new ValueConverter() {
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    Object convert(String value) {
+                        return Enum.valueOf((Class<? extends Enum>) type, value);
+                    }
+                };
+            } else {
+                return new ValueConverter() {
+                    @Override
+                    Object convert(String value) {
+                        return DataType.asType(type, value);
+                    }
+                };
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.Assert;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Constructor which creates a bean from a form, together with the form value names of its arguments. This is the
+ * default constructor or else a {@link JsonCreator} constructor whose arguments are all annotated with
+ * {@link JsonProperty}. Used by {@link BeanFormTemplate} to render constructor based forms and by {@link BeanBinder}
+ * to bind them.
+ */
+final class BeanCreator {
+
+    /**
+     * Constructor argument bound to a form value.
+     */
+    static final class Argument {
+        final String name;
+        final Class<?> type;
+        final MethodParameter methodParameter;
+
+        Argument(String name, Class<?> type, MethodParameter methodParameter) {
+            this.name = name;
+            this.type = type;
+            this.methodParameter = methodParameter;
+        }
+    }
+
+    final Constructor<?> constructor;
+    final List<Argument> arguments;
+
+    private BeanCreator(Constructor<?> constructor, List<Argument> arguments) {
+        this.constructor = constructor;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Gets creator of type.
+     *
+     * @param type to create
+     * @return creator
+     * @throws IllegalArgumentException if the type has neither a default constructor nor a {@link JsonCreator} with
+     *                                  {@link JsonProperty} arguments only
+     */
+    static BeanCreator forType(Class<?> type) {
+        Constructor<?> constructor = findCreator(type);
+        Assert.notNull(constructor, "no default constructor or JsonCreator found for type " + type.getName());
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
+        // differs e.g. for the synthetic outer instance argument of an inner class
+        Assert.isTrue(annotationsOnParameters.length == parameterTypes.length, "parameter annotations of " +
+                "@JsonCreator " + constructor.getName() + " do not match its arguments");
+        List<Argument> arguments = new ArrayList<Argument>(parameterTypes.length);
+        for (int paramIndex = 0; paramIndex < parameterTypes.length; paramIndex++) {
+            JsonProperty jsonProperty = null;
+            for (Annotation annotation : annotationsOnParameters[paramIndex]) {
+                if (JsonProperty.class == annotation.annotationType()) {
+                    jsonProperty = (JsonProperty) annotation;
+                }
+            }
+            Assert.notNull(jsonProperty, "not all constructor arguments of @JsonCreator " + constructor.getName() +
+                    " are annotated with @JsonProperty");
+            // TODO use required attribute of JsonProperty
+            arguments.add(new Argument(jsonProperty.value(), parameterTypes[paramIndex],
+                    new MethodParameter(constructor, paramIndex)));
+        }
+        return new BeanCreator(constructor, Collections.unmodifiableList(arguments));
+    }
+
+    /**
+     * Finds the default constructor of type or else its {@link JsonCreator} constructor.
+     *
+     * @param type to create
+     * @return constructor or null
+     */
+    static Constructor<?> findCreator(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        for (Constructor<?> ctor : constructors) {
+            if (ctor.getParameterTypes().length == 0) {
+                return ctor;
+            }
+        }
+        for (Constructor<?> ctor : constructors) {
+            if (AnnotationUtils.getAnnotation(ctor, JsonCreator.class) != null) {
+                return ctor;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.ClassCache;
+import de.escalon.hypermedia.ClassMetadata;
+import de.escalon.hypermedia.DataType;
+import de.escalon.hypermedia.action.ActionInputParameter;
+import de.escalon.hypermedia.action.ActionInputShape;
+import de.escalon.hypermedia.action.Select;
+import de.escalon.hypermedia.action.Type;
+import org.springframework.core.MethodParameter;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Input fields of a request body type, compiled once per body type and kind of action: a POST form has an input for
+ * every {@link JsonProperty} argument of the constructor which creates the bean, other forms have an input for every
+ * bean property with a setter. The markup which depends only on the field is prepared as pre-encoded segments, so
+ * that rendering a form only has to fill in the current values and select options.
+ */
+final class BeanFormTemplate {
+
+    private static final ClassCache<BeanFormTemplate> CONSTRUCTOR_FORMS = new ClassCache<BeanFormTemplate>() {
+        @Override
+        protected BeanFormTemplate compute(Class<?> type) {
+            return compileConstructorForm(type);
+        }
+    };
+
+    private static final ClassCache<BeanFormTemplate> SETTER_FORMS = new ClassCache<BeanFormTemplate>() {
+        @Override
+        protected BeanFormTemplate compute(Class<?> type) {
+            return compileSetterForm(type);
+        }
+    };
+
+    private static final Object[] NO_POSSIBLE_VALUES = new Object[0];
+
+    /**
+     * Input field of a bean form.
+     */
+    static final class Field {
+
+        final String name;
+        final Class<?> type;
+        final boolean singleValue;
+        /**
+         * Describes the bean property of setter based forms, null for constructor arguments.
+         */
+        final PropertyDescriptor propertyDescriptor;
+        final ActionInputShape shape;
+        /**
+         * Possible values independent of the current call, null if they must be determined per call.
+         */
+        final Object[] possibleValues;
+        final boolean hidden;
+        /**
+         * {@code <label for="name">}
+         */
+        final XhtmlWriter.Markup labelStart;
+        /**
+         * Input element up to the value attribute's value.
+         */
+        final XhtmlWriter.Markup inputStart;
+        /**
+         * Caption of a nested bean.
+         */
+        final XhtmlWriter.Markup caption;
+
+        Field(String name, Class<?> type, PropertyDescriptor propertyDescriptor, MethodParameter methodParameter) {
+            this.name = name;
+            this.type = type;
+            this.singleValue = DataType.isSingleValueType(type);
+            this.propertyDescriptor = propertyDescriptor;
+            if (singleValue) {
+                this.shape = new ActionInputShape(methodParameter, null);
+                this.possibleValues = methodParameter.getParameterAnnotation(Select.class) == null ?
+                        new ActionInputParameter(shape, null).getPossibleValues(methodParameter, null) : null;
+                Type htmlInputFieldType = shape.getHtmlInputFieldType();
+                this.hidden = Type.HIDDEN == htmlInputFieldType;
+                this.labelStart = new XhtmlWriter.Markup("<label for=\"" + name + "\">");
+                StringBuilder input = new StringBuilder("<input name=\"").append(name)
+                        .append("\" type=\"")
+                        .append(htmlInputFieldType)
+                        .append("\" ");
+                if (!hidden) {
+                    for (Map.Entry<String, Object> entry : shape.getInputConstraints()
+                            .entrySet()) {
+                        input.append(' ')
+                                .append(entry.getKey())
+                                .append("=\"")
+                                .append(entry.getValue())
+                                .append('"');
+                    }
+                }
+                this.inputStart = new XhtmlWriter.Markup(input.append(" value=\"")
+                        .toString());
+                this.caption = null;
+            } else {
+                this.shape = null;
+                this.possibleValues = NO_POSSIBLE_VALUES;
+                this.hidden = false;
+                this.labelStart = null;
+                this.inputStart = null;
+                this.caption = new XhtmlWriter.Markup(name + ":");
+            }
+        }
+    }
+
+    final boolean constructorBased;
+    final List<Field> fields;
+
+    private BeanFormTemplate(boolean constructorBased, List<Field> fields) {
+        this.constructorBased = constructorBased;
+        this.fields = fields;
+    }
+
+    /**
+     * Gets form template for bean type.
+     *
+     * @param beanType         of request body
+     * @param constructorBased if true, the form has inputs for the {@link JsonProperty} arguments of the constructor
+     *                         which creates the bean, otherwise it has inputs for bean properties having a setter
+     * @return shared template
+     * @throws IllegalArgumentException if a constructor based form is requested for a type which has neither a
+     *                                  default constructor nor a {@link JsonCreator} with {@link JsonProperty}
+     *                                  arguments only
+     */
+    static BeanFormTemplate forBeanType(Class<?> beanType, boolean constructorBased) {
+        return (constructorBased ? CONSTRUCTOR_FORMS : SETTER_FORMS).get(beanType);
+    }
+
+    private static BeanFormTemplate compileConstructorForm(Class<?> beanType) {
+        List<Field> fields = new ArrayList<Field>();
+        for (BeanCreator.Argument argument : BeanCreator.forType(beanType).arguments) {
+            fields.add(new Field(argument.name, argument.type, null, argument.methodParameter));
+        }
+        return new BeanFormTemplate(true, Collections.unmodifiableList(fields));
+    }
+
+    private static BeanFormTemplate compileSetterForm(Class<?> beanType) {
+        // TODO non-writable properties and public fields; make sure the inputs are part of a form
+        List<Field> fields = new ArrayList<Field>();
+        for (PropertyDescriptor propertyDescriptor : ClassMetadata.forClass(beanType)
+                .getPropertyDescriptors()) {
+            Method writeMethod = propertyDescriptor.getWriteMethod();
+            if (writeMethod != null) {
+                fields.add(new Field(propertyDescriptor.getName(), propertyDescriptor.getPropertyType(),
+                        propertyDescriptor, new MethodParameter(writeMethod, 0)));
+            }
+        }
+        return new BeanFormTemplate(false, Collections.unmodifiableList(fields));
+    }
+}
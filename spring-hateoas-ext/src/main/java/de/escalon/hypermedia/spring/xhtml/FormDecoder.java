@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * Decodes application/x-www-form-urlencoded form data in a single pass. Decodes like {@link java.net.URLDecoder},
+ * pairs are separated by ampersand, whitespace around pairs and empty pairs are ignored. A name without equals sign
+ * has a null value.
+ */
+final class FormDecoder {
+
+    private FormDecoder() {
+    }
+
+    /**
+     * Collects form values from the parameter map of a servlet request, which has been decoded by the container.
+     *
+     * @param parameterMap of servlet request
+     * @return form values in order of the parameter map
+     */
+    static MultiValueMap<String, String> fromParameterMap(Map<String, String[]> parameterMap) {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>(parameterMap.size());
+        for (Map.Entry<String, String[]> entry : parameterMap.entrySet()) {
+            String name = entry.getKey();
+            for (String value : entry.getValue()) {
+                formValues.add(name, value);
+            }
+        }
+        return formValues;
+    }
+
+    /**
+     * Decodes form-urlencoded body.
+     *
+     * @param body    raw body
+     * @param charset of percent-encoded bytes
+     * @return form values in order of the body
+     * @throws IllegalArgumentException if the body has a malformed percent escape
+     */
+    static MultiValueMap<String, String> decode(byte[] body, Charset charset) {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>();
+        // decoded bytes of the current name or value, never longer than the body
+        byte[] scratch = new byte[body.length];
+        int pairStart = 0;
+        while (pairStart <= body.length) {
+            int pairEnd = indexOf(body, (byte) '&', pairStart, body.length);
+            int start = pairStart;
+            int end = pairEnd;
+            while (start < end && isWhitespace(body[start])) {
+                start++;
+            }
+            while (end > start && isWhitespace(body[end - 1])) {
+                end--;
+            }
+            if (start < end) {
+                int equals = indexOf(body, (byte) '=', start, end);
+                if (equals == end) {
+                    formValues.add(decode(body, start, end, scratch, charset), null);
+                } else {
+                    formValues.add(decode(body, start, equals, scratch, charset),
+                            decode(body, equals + 1, end, scratch, charset));
+                }
+            }
+            pairStart = pairEnd + 1;
+        }
+        return formValues;
+    }
+
+    private static String decode(byte[] body, int start, int end, byte[] scratch, Charset charset) {
+        int length = 0;
+        boolean ascii = true;
+        for (int i = start; i < end; i++) {
+            byte b = body[i];
+            if (b == '+') {
+                scratch[length++] = ' ';
+            } else if (b == '%') {
+                if (i + 2 >= end) {
+                    throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+                }
+                int high = Character.digit(body[i + 1], 16);
+                int low = Character.digit(body[i + 2], 16);
+                if (high == -1 || low == -1) {
+                    throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern");
+                }
+                b = (byte) ((high << 4) + low);
+                ascii &= b >= 0;
+                scratch[length++] = b;
+                i += 2;
+            } else {
+                ascii &= b >= 0;
+                scratch[length++] = b;
+            }
+        }
+        if (ascii) {
+            // no charset lookup for the common case
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) scratch[i];
+            }
+            return new String(chars);
+        }
+        return new String(scratch, 0, length, charset);
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && Character.isWhitespace((char) b);
+    }
+}
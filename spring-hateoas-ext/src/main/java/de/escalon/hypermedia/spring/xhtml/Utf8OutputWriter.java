@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Buffered writer which encodes characters as UTF-8 directly into a byte buffer. The buffer is written to the
+ * underlying stream only when it is full or on {@link #flush()}, so that many small writes of markup do not reach
+ * the stream one by one. Pre-encoded markup can be written with {@link #write(byte[])}.
+ * Not thread-safe.
+ */
+final class Utf8OutputWriter extends Writer {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    Utf8OutputWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    Utf8OutputWriter(OutputStream out, int bufferSize) {
+        // room for the longest encoded char
+        if (bufferSize < 4) {
+            throw new IllegalArgumentException("buffer size must be at least 4, but was " + bufferSize);
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes pre-encoded UTF-8 bytes.
+     *
+     * @param bytes to write
+     * @throws IOException if the underlying stream fails
+     */
+    void write(byte[] bytes) throws IOException {
+        if (highSurrogate != 0) {
+            // unpaired high surrogate before markup
+            highSurrogate = 0;
+            encode('?');
+        }
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && count < buffer.length && highSurrogate == 0) {
+                buffer[count++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && count < buffer.length && highSurrogate == 0) {
+                buffer[count++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        if (buffer.length - count < 4) {
+            flushBuffer();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // unpaired high surrogate
+            buffer[count++] = '?';
+            encode(c);
+            return;
+        }
+        if (c < 0x80) {
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            // unpaired low surrogate
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            encode('?');
+        }
+        flush();
+        out.close();
+    }
+}
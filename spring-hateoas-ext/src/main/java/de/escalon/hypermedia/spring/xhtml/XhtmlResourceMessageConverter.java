@@ -13,11 +13,10 @@
 
 package de.escalon.hypermedia.spring.xhtml;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.ClassMetadata;
 import de.escalon.hypermedia.DataType;
-import de.escalon.hypermedia.PropertyUtils;
-import org.springframework.core.annotation.AnnotationUtils;
+import de.escalon.hypermedia.PropertyAccessor;
+import de.escalon.hypermedia.spring.StreamingResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.hateoas.Resources;
@@ -32,14 +31,8 @@ import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.util.*;
 
 import javax.servlet.http.HttpServletRequest;
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.*;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.*;
 import java.util.Map.Entry;
@@ -65,7 +58,9 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
 
 
     public XhtmlResourceMessageConverter() {
-        this.setSupportedMediaTypes(Arrays.asList(MediaType.TEXT_HTML, MediaType.APPLICATION_FORM_URLENCODED));
+        // the xhtml writer always writes UTF-8
+        this.setSupportedMediaTypes(Arrays.asList(new MediaType("text", "html", Utf8OutputWriter.UTF_8),
+                MediaType.APPLICATION_FORM_URLENCODED));
     }
 
     @Override
@@ -99,7 +94,7 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
     protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) throws IOException,
             HttpMessageNotReadableException {
 
-        InputStream is;
+        MultiValueMap<String, String> formValues;
         if (inputMessage instanceof ServletServerHttpRequest) {
             // this is necessary to support HiddenHttpMethodFilter
             // thanks to https://www.w3.org/html/wg/tracker/issues/195
@@ -107,16 +102,17 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
             // and http://cameronjones.github.io/form-http-extensions/index.html
             // and http://www.w3.org/TR/form-http-extensions/
             // TODO recognize this more safely or make the filter mandatory
-            MediaType contentType = inputMessage.getHeaders()
-                    .getContentType();
-            Charset charset = contentType.getCharSet() != null ? contentType.getCharSet() : this.charset;
             ServletServerHttpRequest servletServerHttpRequest = (ServletServerHttpRequest) inputMessage;
             HttpServletRequest servletRequest = servletServerHttpRequest.getServletRequest();
-            is = getBodyFromServletRequestParameters(servletRequest, charset.displayName(Locale.US));
+            formValues = getFormValuesFromServletRequestParameters(servletRequest);
         } else {
-            is = inputMessage.getBody();
+            MediaType contentType = inputMessage.getHeaders()
+                    .getContentType();
+            Charset charset = contentType != null && contentType.getCharSet() != null ?
+                    contentType.getCharSet() : this.charset;
+            formValues = FormDecoder.decode(StreamUtils.copyToByteArray(inputMessage.getBody()), charset);
         }
-        return readRequestBody(clazz, is, charset);
+        return recursivelyCreateObject(clazz, formValues);
 
     }
 
@@ -126,62 +122,11 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
      * body of a form 'POST' providing a predictable outcome as opposed to reading
      * from the body, which can fail if any other code has used ServletRequest
      * to access a parameter thus causing the input stream to be "consumed".
+     * The parameters have already been decoded by the servlet container, so they are used as they are.
      */
-    private InputStream getBodyFromServletRequestParameters(HttpServletRequest request, String charset) throws
-            IOException {
-
-
-        ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
-        Writer writer = new OutputStreamWriter(bos, charset);
-
-        Map<String, String[]> form = request.getParameterMap();
-        for (Iterator<String> nameIterator = form.keySet()
-                .iterator(); nameIterator.hasNext(); ) {
-            String name = nameIterator.next();
-            List<String> values = Arrays.asList(form.get(name));
-            for (Iterator<String> valueIterator = values.iterator(); valueIterator.hasNext(); ) {
-                String value = valueIterator.next();
-                writer.write(URLEncoder.encode(name, charset));
-                if (value != null) {
-                    writer.write('=');
-                    writer.write(URLEncoder.encode(value, charset));
-                    if (valueIterator.hasNext()) {
-                        writer.write('&');
-                    }
-                }
-            }
-            if (nameIterator.hasNext()) {
-                writer.append('&');
-            }
-        }
-        writer.flush();
-
-        return new ByteArrayInputStream(bos.toByteArray());
-    }
-
-    private Object readRequestBody(Class<? extends Object> clazz, InputStream inputStream, Charset charset) throws
-            IOException {
-
-        String body = StreamUtils.copyToString(inputStream, charset);
-
-        String[] pairs = StringUtils.tokenizeToStringArray(body, "&");
-
-        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>(pairs.length);
-
-        for (String pair : pairs) {
-            int idx = pair.indexOf('=');
-            if (idx == -1) {
-                formValues.add(URLDecoder.decode(pair, charset.name()), null);
-            } else {
-                String name = URLDecoder.decode(pair.substring(0, idx), charset.name());
-                String value = URLDecoder.decode(pair.substring(idx + 1), charset.name());
-                formValues.add(name, value);
-            }
-        }
-
-        return recursivelyCreateObject(clazz, formValues);
-
-
+    @SuppressWarnings("unchecked")
+    private MultiValueMap<String, String> getFormValuesFromServletRequestParameters(HttpServletRequest request) {
+        return FormDecoder.fromParameterMap((Map<String, String[]>) request.getParameterMap());
     }
 
     private Object recursivelyCreateObject(Class<? extends Object> clazz, MultiValueMap<String, String> formValues) {
@@ -192,97 +137,27 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
             throw new IllegalArgumentException("Collection not supported");
         } else {
             try {
-                Constructor[] constructors = clazz.getConstructors();
-                Constructor constructor = findDefaultCtor(constructors);
-                if (constructor == null) {
-                    constructor = findJsonCreator(constructors);
-                }
-                Assert.notNull(constructor, "no default constructor or JsonCreator found");
-                int parameterCount = constructor.getParameterTypes().length;
-                Object[] args = new Object[parameterCount];
-                if (parameterCount > 0) {
-                    Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
-                    Class[] parameters = constructor.getParameterTypes();
-                    int paramIndex = 0;
-                    for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
-                        for (Annotation annotation : annotationsOnParameter) {
-                            if (JsonProperty.class == annotation.annotationType()) {
-                                JsonProperty jsonProperty = (JsonProperty) annotation;
-                                String paramName = jsonProperty.value();
-                                List<String> formValue = formValues.get(paramName);
-                                Class<?> parameterType = parameters[paramIndex];
-                                if (DataType.isSingleValueType(parameterType)) {
-                                    if (formValue != null) {
-                                        if (formValue.size() == 1) {
-                                            args[paramIndex++] = DataType.asType(parameterType, formValue.get(0));
-                                        } else {
-//                                        // TODO create proper collection type
-                                            throw new IllegalArgumentException("variable list not supported");
-//                                        List<Object> listValue = new ArrayList<Object>();
-//                                        for (String item : formValue) {
-//                                            listValue.add(DataType.asType(parameterType, formValue.get(0)));
-//                                        }
-//                                        args[paramIndex++] = listValue;
-                                        }
-                                    } else {
-                                        args[paramIndex++] = null;
-                                    }
-                                } else {
-                                    args[paramIndex++] = recursivelyCreateObject(parameterType, formValues);
-                                }
-                            }
-                        }
-                    }
-                    Assert.isTrue(args.length == paramIndex, "not all constructor arguments of @JsonCreator are " +
-                            "annotated with @JsonProperty");
-                }
-                Object ret = constructor.newInstance(args);
-                BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
-                PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                    Method writeMethod = propertyDescriptor.getWriteMethod();
-                    String name = propertyDescriptor.getName();
-                    List<String> strings = formValues.get(name);
-                    if (writeMethod != null && strings != null && strings.size() == 1) {
-                        writeMethod.invoke(ret, DataType.asType(propertyDescriptor.getPropertyType(), strings.get(0))
-                        ); // TODO lists, consume values from ctor
-                    }
-                }
-                return ret;
+                return BeanBinder.forClass(clazz)
+                        .bind(formValues);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to instantiate bean " + clazz.getName(), e);
             }
         }
     }
 
-    private Constructor findDefaultCtor(Constructor[] constructors) {
-        // TODO duplicate on XhtmlWriter
-        Constructor constructor = null;
-        for (Constructor ctor : constructors) {
-            if (ctor.getParameterTypes().length == 0) {
-                constructor = ctor;
-            }
-        }
-        return constructor;
-    }
-
-    private Constructor findJsonCreator(Constructor[] constructors) {
-        // TODO duplicate on XhtmlWriter
-        Constructor constructor = null;
-        for (Constructor ctor : constructors) {
-            if (AnnotationUtils.getAnnotation(ctor, JsonCreator.class) != null) {
-                constructor = ctor;
-                break;
-            }
-        }
-        return constructor;
-    }
-
     @Override
     protected void writeInternal(Object t, HttpOutputMessage outputMessage) throws IOException,
             HttpMessageNotWritableException {
 
-        XhtmlWriter xhtmlWriter = new XhtmlWriter(new OutputStreamWriter(outputMessage.getBody()));
+        MediaType contentType = outputMessage.getHeaders()
+                .getContentType();
+        if (contentType != null && contentType.getCharSet() == null) {
+            // the content type has been negotiated without charset, but the xhtml writer always writes UTF-8
+            outputMessage.getHeaders()
+                    .setContentType(new MediaType(contentType.getType(), contentType.getSubtype(),
+                            Utf8OutputWriter.UTF_8));
+        }
+        XhtmlWriter xhtmlWriter = new XhtmlWriter(outputMessage.getBody());
         xhtmlWriter.setMethodParam(methodParam);
         xhtmlWriter.setStylesheets(stylesheets);
         xhtmlWriter.setDocumentationProvider(documentationProvider);
@@ -322,6 +197,29 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
                 writeResource(writer, resource.getContent());
                 writer.writeLinks(resource.getLinks());
 
+                writer.endListItem();
+            } else if (object instanceof StreamingResources) {
+                StreamingResources<?> resources = (StreamingResources<?>) object;
+
+                writer.beginListItem();
+
+                writer.beginUnorderedList();
+                // let the client render what we have while the items are being read
+                writer.flush();
+                Iterator<?> items = resources.iterator();
+                try {
+                    while (items.hasNext()) {
+                        writeResource(writer, items.next());
+                    }
+                } finally {
+                    if (items instanceof Closeable) {
+                        ((Closeable) items).close();
+                    }
+                }
+                writer.endUnorderedList();
+
+                writer.writeLinks(resources.getLinks());
+
                 writer.endListItem();
             } else if (object instanceof Resources) {
                 Resources<?> resources = (Resources<?>) object;
@@ -398,27 +296,27 @@ public class XhtmlResourceMessageConverter extends AbstractHttpMessageConverter<
             writeDdForScalarValue(writer, object);
         } else {
             Class<?> aClass = object.getClass();
-            Map<String, PropertyDescriptor> propertyDescriptors = PropertyUtils.getPropertyDescriptors(object);
+            ClassMetadata classMetadata = ClassMetadata.forClass(aClass);
+            Map<String, PropertyAccessor> propertyAccessors = classMetadata.getPropertyAccessorsByName();
             // getFields retrieves public only
-            Field[] fields = aClass.getFields();
-            for (Field field : fields) {
+            for (Field field : classMetadata.getPublicFields()) {
                 String name = field.getName();
-                if (!propertyDescriptors.containsKey(name)) {
+                if (!propertyAccessors.containsKey(name)) {
                     Object content = field.get(object);
                     String docUrl = documentationProvider.getDocumentationUrl(field, content);
                     //<a href="http://schema.org/review">http://schema.org/performer</a>
                     writeObjectAttributeRecursively(writer, name, content, docUrl);
                 }
             }
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors.values()) {
-                String name = propertyDescriptor.getName();
+            for (PropertyAccessor propertyAccessor : propertyAccessors.values()) {
+                String name = propertyAccessor.getName();
                 if (FILTER_RESOURCE_SUPPORT.contains(name)) {
                     continue;
                 }
-                Method readMethod = propertyDescriptor.getReadMethod();
-                if (readMethod != null) {
-                    Object content = readMethod.invoke(object);
-                    String docUrl = documentationProvider.getDocumentationUrl(readMethod, content);
+                if (propertyAccessor.isReadable()) {
+                    Object content = propertyAccessor.getValue(object);
+                    String docUrl = documentationProvider.getDocumentationUrl(propertyAccessor.getReadMethod(),
+                            content);
                     writeObjectAttributeRecursively(writer, name, content, docUrl);
                 }
             }
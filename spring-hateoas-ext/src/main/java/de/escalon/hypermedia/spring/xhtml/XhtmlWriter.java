@@ -1,8 +1,8 @@
 package de.escalon.hypermedia.spring.xhtml;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.ClassMetadata;
 import de.escalon.hypermedia.DataType;
+import de.escalon.hypermedia.PropertyAccessor;
 import de.escalon.hypermedia.PropertyUtils;
 import de.escalon.hypermedia.action.ActionDescriptor;
 import de.escalon.hypermedia.action.ActionInputParameter;
@@ -10,24 +10,15 @@ import de.escalon.hypermedia.action.Type;
 import de.escalon.hypermedia.spring.Affordance;
 import de.escalon.hypermedia.spring.PartialUriTemplate;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.core.MethodParameter;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.core.convert.Property;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMethod;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.*;
 
 import static de.escalon.hypermedia.spring.xhtml.XhtmlWriter.OptionalAttributes.attr;
@@ -62,37 +53,111 @@ public class XhtmlWriter extends Writer {
             "  </body>" + //
             "</html>";
 
+    private static final Markup HEAD_START_BEFORE_TITLE = markupBefore(HTML_HEAD_START);
+    private static final Markup HEAD_START_AFTER_TITLE = markupAfter(HTML_HEAD_START);
+    private static final Markup STYLESHEET_BEFORE_HREF = markupBefore(HTML_STYLESHEET);
+    private static final Markup STYLESHEET_AFTER_HREF = markupAfter(HTML_STYLESHEET);
+    private static final Markup HEAD_END = new Markup(HTML_HEAD_END);
+    private static final Markup END = new Markup(HTML_END);
+    private static final Markup DIV_START = new Markup("<div>");
+    private static final Markup DIV_END = new Markup("</div>");
+    private static final Markup UL_START = new Markup("<ul class=\"list-group\">");
+    private static final Markup UL_END = new Markup("</ul>");
+    private static final Markup LI_START = new Markup("<li class=\"list-group-item\">");
+    private static final Markup LI_END = new Markup("</li>");
+    private static final Markup SPAN_START = new Markup("<span>");
+    private static final Markup SPAN_END = new Markup("</span>");
+    private static final Markup DL_START = new Markup("<dl >");
+    private static final Markup DL_END = new Markup("</dl>");
+    private static final Markup DT_START = new Markup("<dt>");
+    private static final Markup DT_END = new Markup("</dt>");
+    private static final Markup DD_START = new Markup("<dd>");
+    private static final Markup DD_END = new Markup("</dd>");
+    private static final Markup INPUT_NAME_START = new Markup("<input name=\"");
+    private static final Markup INPUT_TYPE = new Markup("\" type=\"");
+    private static final Markup TAG_CLOSE = new Markup("/>");
+    private static final Markup VALUE_TAG_CLOSE = new Markup("\"/>");
+    private static final Markup LABEL_START = new Markup("<label");
+    private static final Markup LABEL_END = new Markup("</label>");
+    private static final Markup FORM_START = new Markup("<form class=\"well\" ");
+    private static final Markup FORM_END = new Markup("</form>");
+    private static final Markup ANCHOR_START = new Markup("<a ");
+    private static final Markup ANCHOR_END = new Markup("</a>");
+    private static final Markup OPTION_END = new Markup("</option>");
+    private static final Markup SELECT_END = new Markup("</select>");
+
     private String methodParam = "_method";
     private DocumentationProvider documentationProvider;
 
+    /**
+     * Pre-encoded static markup.
+     */
+    static final class Markup {
+        final String text;
+        final byte[] bytes;
+
+        Markup(String text) {
+            this.text = text;
+            this.bytes = text.getBytes(Utf8OutputWriter.UTF_8);
+        }
+    }
+
+    private static Markup markupBefore(String format) {
+        return new Markup(format.substring(0, format.indexOf("%s")));
+    }
+
+    private static Markup markupAfter(String format) {
+        return new Markup(format.substring(format.indexOf("%s") + 2));
+    }
 
     public XhtmlWriter(Writer writer) {
         this.writer = writer;
     }
 
+    /**
+     * Creates writer which writes UTF-8 to the given stream through a buffer, writing static markup pre-encoded.
+     *
+     * @param outputStream to write to, must be flushed by means of {@link #flush()}
+     */
+    public XhtmlWriter(OutputStream outputStream) {
+        this.writer = new Utf8OutputWriter(outputStream);
+    }
+
+    private void write(Markup markup) throws IOException {
+        if (writer instanceof Utf8OutputWriter) {
+            ((Utf8OutputWriter) writer).write(markup.bytes);
+        } else {
+            writer.write(markup.text);
+        }
+    }
+
     public void setMethodParam(String methodParam) {
         this.methodParam = methodParam;
     }
 
     public void beginHtml(String title) throws IOException {
-        write(String.format(HTML_HEAD_START, title));
+        write(HEAD_START_BEFORE_TITLE);
+        write(title);
+        write(HEAD_START_AFTER_TITLE);
         for (String stylesheet : stylesheets) {
-            write(String.format(HTML_STYLESHEET, stylesheet));
+            write(STYLESHEET_BEFORE_HREF);
+            write(stylesheet);
+            write(STYLESHEET_AFTER_HREF);
         }
-        write(String.format(HTML_HEAD_END, title));
+        write(HEAD_END);
     }
 
 
     public void endHtml() throws IOException {
-        write(HTML_END);
+        write(END);
     }
 
     public void beginDiv() throws IOException {
-        writer.write("<div>");
+        write(DIV_START);
     }
 
     public void endDiv() throws IOException {
-        writer.write("</div>");
+        write(DIV_END);
     }
 
     @Override
@@ -100,6 +165,21 @@ public class XhtmlWriter extends Writer {
         writer.write(cbuf, off, len);
     }
 
+    @Override
+    public void write(String str) throws IOException {
+        writer.write(str);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        writer.write(str, off, len);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writer.write(c);
+    }
+
     @Override
     public void flush() throws IOException {
         writer.flush();
@@ -111,55 +191,55 @@ public class XhtmlWriter extends Writer {
     }
 
     public void beginUnorderedList() throws IOException {
-        writer.write("<ul class=\"list-group\">");
+        write(UL_START);
     }
 
     public void endUnorderedList() throws IOException {
-        writer.write("</ul>");
+        write(UL_END);
     }
 
     public void beginListItem() throws IOException {
-        writer.write("<li class=\"list-group-item\">");
+        write(LI_START);
     }
 
     public void endListItem() throws IOException {
-        writer.write("</li>");
+        write(LI_END);
     }
 
 
     public void beginSpan() throws IOException {
-        writer.write("<span>");
+        write(SPAN_START);
     }
 
     public void endSpan() throws IOException {
-        writer.write("</span>");
+        write(SPAN_END);
     }
 
     public void beginDl() throws IOException {
         // TODO: make this configurable?
 //        writer.write("<dl class=\"dl-horizontal\"  >");
-        writer.write("<dl >");
+        write(DL_START);
     }
 
     public void endDl() throws IOException {
-        writer.write("</dl>");
+        write(DL_END);
     }
 
 
     public void beginDt() throws IOException {
-        writer.write("<dt>");
+        write(DT_START);
     }
 
     public void endDt() throws IOException {
-        writer.write("</dt>");
+        write(DT_END);
     }
 
     public void beginDd() throws IOException {
-        writer.write("<dd>");
+        write(DD_START);
     }
 
     public void endDd() throws IOException {
-        writer.write("</dd>");
+        write(DD_END);
     }
 
     public void writeSpan(Object value) throws IOException {
@@ -333,21 +413,21 @@ public class XhtmlWriter extends Writer {
         write(type.toString());
         write("\" ");
         write("value");
-        write("=");
+        write('=');
         quote();
         write(value);
         quote();
-        write("/>");
+        write(TAG_CLOSE);
     }
 
     private void input(String fieldName, Type type, OptionalAttributes attributes) throws IOException {
-        write("<input name=\"");
+        write(INPUT_NAME_START);
         write(fieldName);
-        write("\" type=\"");
+        write(INPUT_TYPE);
         write(type.toString());
         write("\" ");
         writeAttributes(attributes);
-        write("/>");
+        write(TAG_CLOSE);
     }
 
     private void input(String fieldName, Type type) throws IOException {
@@ -364,28 +444,28 @@ public class XhtmlWriter extends Writer {
 //    }
 
     private void beginLabel(OptionalAttributes attributes) throws IOException {
-        write("<label");
+        write(LABEL_START);
         writeAttributes(attributes);
         endTag();
     }
 
     private void endLabel() throws IOException {
-        write("</label>");
+        write(LABEL_END);
     }
 
 
     private void beginForm(OptionalAttributes attrs) throws IOException {
-        write("<form class=\"well\" ");
+        write(FORM_START);
         writeAttributes(attrs);
-        write(">");
+        write('>');
     }
 
     private void writeAttributes(OptionalAttributes attrs) throws IOException {
         Map<String, String> attributes = attrs.build();
         for (Map.Entry<String, String> entry : attributes.entrySet()) {
-            write(" ");
+            write(' ');
             write(entry.getKey());
-            write("=");
+            write('=');
             quote();
             write(entry.getValue());
             quote();
@@ -393,21 +473,21 @@ public class XhtmlWriter extends Writer {
     }
 
     private void quote() throws IOException {
-        write("\"");
+        write('"');
     }
 
     private void endForm() throws IOException {
-        write("</form>");
+        write(FORM_END);
     }
 
     public void beginAnchor(OptionalAttributes attrs) throws IOException {
-        write("<a ");
+        write(ANCHOR_START);
         writeAttributes(attrs);
         endTag();
     }
 
     public void endAnchor() throws IOException {
-        write("</a>");
+        write(ANCHOR_END);
     }
 
     private void writeAnchor(OptionalAttributes attrs, String value) throws IOException {
@@ -506,29 +586,6 @@ public class XhtmlWriter extends Writer {
         return ret;
     }
 
-    private Constructor findDefaultCtor(Constructor[] constructors) {
-        // TODO duplicate on HtmlResourceMessageConverter
-        Constructor constructor = null;
-        for (Constructor ctor : constructors) {
-            if (ctor.getParameterTypes().length == 0) {
-                constructor = ctor;
-            }
-        }
-        return constructor;
-    }
-
-    private Constructor findJsonCreator(Constructor[] constructors) {
-        // TODO duplicate on HtmlResourceMessageConverter
-        Constructor constructor = null;
-        for (Constructor ctor : constructors) {
-            if (AnnotationUtils.getAnnotation(ctor, JsonCreator.class) != null) {
-                constructor = ctor;
-                break;
-            }
-        }
-        return constructor;
-    }
-
     /**
      * Renders input fields for bean properties of bean to add or update or patch.
      *
@@ -541,150 +598,59 @@ public class XhtmlWriter extends Writer {
     private void recurseBeanProperties(Class<?> beanType, ActionDescriptor actionDescriptor, ActionInputParameter
             actionInputParameter, Object currentCallValue) throws IOException {
         // TODO support Option provider by other method args?
-        final BeanInfo beanInfo = getBeanInfo(beanType);
-        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
         // TODO collection and map
 
         // TODO: do not add two inputs for setter and ctor
-
-        // TODO almost duplicate of HtmlResourceMessageConverter.recursivelyCreateObject
         if (RequestMethod.POST == actionDescriptor.getHttpMethod()) {
             try {
-                Constructor[] constructors = beanType.getConstructors();
-                // find default ctor
-                Constructor constructor = findDefaultCtor(constructors);
-                // find ctor with JsonCreator ann
-                if (constructor == null) {
-                    constructor = findJsonCreator(constructors);
-                }
-                Assert.notNull(constructor, "no default constructor or JsonCreator found for type " + beanType
-                        .getName());
-                int parameterCount = constructor.getParameterTypes().length;
-                if (parameterCount > 0) {
-                    Annotation[][] annotationsOnParameters = constructor.getParameterAnnotations();
-
-                    Class[] parameters = constructor.getParameterTypes();
-                    int paramIndex = 0;
-                    for (Annotation[] annotationsOnParameter : annotationsOnParameters) {
-                        for (Annotation annotation : annotationsOnParameter) {
-                            if (JsonProperty.class == annotation.annotationType()) {
-                                JsonProperty jsonProperty = (JsonProperty) annotation;
-                                // TODO use required attribute of JsonProperty
-                                String paramName = jsonProperty.value();
-                                Class parameterType = parameters[paramIndex];
-
-                                // TODO duplicate below for PropertyDescriptors
-                                if (DataType.isSingleValueType(parameterType)) {
-
-                                    Object propertyValue = getPropertyOrFieldValue(currentCallValue, paramName);
-
-                                    ActionInputParameter constructorParamInputParameter = new ActionInputParameter
-                                            (new MethodParameter(constructor, paramIndex), propertyValue);
-
-                                    final Object[] possibleValues = actionInputParameter.getPossibleValues(new
-                                            MethodParameter(constructor, paramIndex), actionDescriptor);
-                                    if (possibleValues.length > 0) {
-                                        if (actionInputParameter.isArrayOrCollection()) {
-                                            // TODO multiple formatted callvalues
-                                            appendSelectMulti(paramName, possibleValues,
-                                                    constructorParamInputParameter);
-                                        } else {
-                                            appendSelectOne(paramName, possibleValues, constructorParamInputParameter);
-                                        }
-                                    } else {
-                                        appendInput(paramName, constructorParamInputParameter,
-                                                constructorParamInputParameter.getCallValue());
-                                    }
-                                } else if (DataType.isArrayOrCollection(parameterType)) {
-                                    Object[] callValues = actionInputParameter.getCallValues();
-                                    int items = callValues.length;
-                                    for (int i = 0; i < items; i++) {
-                                        Object value;
-                                        if (i < callValues.length) {
-                                            value = callValues[i];
-                                        } else {
-                                            value = null;
-                                        }
-                                        recurseBeanProperties(actionInputParameter.getNestedParameterType(),
-                                                actionDescriptor, actionInputParameter, value);
-                                    }
-                                } else {
-                                    beginDiv();
-                                    write(paramName + ":");
-                                    Object propertyValue = getPropertyOrFieldValue(currentCallValue, paramName);
-                                    recurseBeanProperties(parameterType, actionDescriptor, actionInputParameter,
-                                            propertyValue);
-                                    endDiv();
-                                }
-                                paramIndex++; // increase for each @JsonProperty
-                            }
-                        }
-                    }
-                    Assert.isTrue(parameters.length == paramIndex,
-                            "not all constructor arguments of @JsonCreator " + constructor.getName() +
-                                    " are annotated with @JsonProperty");
-                }
+                appendBeanFields(BeanFormTemplate.forBeanType(beanType, true), actionDescriptor,
+                        actionInputParameter, currentCallValue);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to write input fields for constructor", e);
             }
         } else { // non-POST
+            appendBeanFields(BeanFormTemplate.forBeanType(beanType, false), actionDescriptor, actionInputParameter,
+                    currentCallValue);
+        }
+    }
 
-            // TODO non-writable properties and public fields; make sure the inputs are part of a form
-            // write input field for every setter
-            for (PropertyDescriptor propertyDescriptor : propertyDescriptors) {
-                final Method writeMethod = propertyDescriptor.getWriteMethod();
-                if (writeMethod == null) {
-                    continue;
-                }
-                final Class<?> propertyType = propertyDescriptor.getPropertyType();
-
-                String propertyName = propertyDescriptor.getName();
-
-                if (DataType.isSingleValueType(propertyType)) {
-
-                    final Property property = new Property(beanType, propertyDescriptor.getReadMethod(),
-                            propertyDescriptor.getWriteMethod(), propertyDescriptor.getName());
-
-                    Object propertyValue = getPropertyOrFieldValue(currentCallValue, propertyName);
-                    MethodParameter methodParameter = new MethodParameter(propertyDescriptor.getWriteMethod(), 0);
-                    ActionInputParameter propertySetterInputParameter = new ActionInputParameter(methodParameter,
-                            propertyValue);
-                    final Object[] possibleValues = actionInputParameter.getPossibleValues(methodParameter,
+    private void appendBeanFields(BeanFormTemplate template, ActionDescriptor actionDescriptor,
+                                  ActionInputParameter actionInputParameter, Object currentCallValue)
+            throws IOException {
+        for (BeanFormTemplate.Field field : template.fields) {
+            if (field.singleValue) {
+                Object propertyValue = getPropertyOrFieldValue(currentCallValue, field.name);
+                ActionInputParameter fieldInputParameter = new ActionInputParameter(field.shape, propertyValue);
+                Object[] possibleValues = field.possibleValues;
+                if (possibleValues == null) {
+                    possibleValues = actionInputParameter.getPossibleValues(field.shape.getMethodParameter(),
                             actionDescriptor);
-                    if (possibleValues.length > 0) {
-                        if (actionInputParameter.isArrayOrCollection()) {
-                            // TODO multiple formatted callvalues
-                            appendSelectMulti(propertyName, possibleValues, propertySetterInputParameter);
-                        } else {
-                            appendSelectOne(propertyName, possibleValues, propertySetterInputParameter);
-                        }
+                }
+                if (possibleValues.length > 0) {
+                    if (actionInputParameter.isArrayOrCollection()) {
+                        // TODO multiple formatted callvalues
+                        appendSelectMulti(field.name, possibleValues, fieldInputParameter);
                     } else {
-                        //String callValueFormatted = actionInputParameter.getCallValueFormatted();
-                        appendInput(propertyName, propertySetterInputParameter, propertySetterInputParameter
-                                .getCallValue());
-                    }
-                } else if (actionInputParameter.isArrayOrCollection()) {
-                    Object[] callValues = actionInputParameter.getCallValues();
-                    int items = callValues.length;
-                    for (int i = 0; i < items; i++) {
-                        Object value;
-                        if (i < callValues.length) {
-                            value = callValues[i];
-                        } else {
-                            value = null;
-                        }
-                        recurseBeanProperties(actionInputParameter.getNestedParameterType(), actionDescriptor,
-                                actionInputParameter, value);
+                        appendSelectOne(field.name, possibleValues, fieldInputParameter);
                     }
                 } else {
-                    beginDiv();
-                    write(propertyName + ":");
-                    Object propertyValue = PropertyUtils.getPropertyValue(currentCallValue, propertyDescriptor);
-
-
-                    recurseBeanProperties(propertyType, actionDescriptor, actionInputParameter, propertyValue);
-                    endDiv();
+                    appendInput(field, fieldInputParameter);
                 }
+            } else if (template.constructorBased ? DataType.isArrayOrCollection(field.type) :
+                    actionInputParameter.isArrayOrCollection()) {
+                // setter based forms repeat every bean property for each item of a collection request body
+                for (Object value : actionInputParameter.getCallValues()) {
+                    recurseBeanProperties(actionInputParameter.getNestedParameterType(), actionDescriptor,
+                            actionInputParameter, value);
+                }
+            } else {
+                beginDiv();
+                write(field.caption);
+                Object propertyValue = template.constructorBased ?
+                        getPropertyOrFieldValue(currentCallValue, field.name) :
+                        PropertyUtils.getPropertyValue(currentCallValue, field.propertyDescriptor);
+                recurseBeanProperties(field.type, actionDescriptor, actionInputParameter, propertyValue);
+                endDiv();
             }
         }
     }
@@ -705,8 +671,8 @@ public class XhtmlWriter extends Writer {
         try {
             Class<?> beanType = currentCallValue.getClass();
             Object propertyValue = null;
-            Field[] fields = beanType.getFields();
-            for (Field field : fields) {
+            for (Field field : ClassMetadata.forClass(beanType)
+                    .getPublicFields()) {
                 if (fieldName.equals(field.getName())) {
                     propertyValue = field.get(currentCallValue);
                     break;
@@ -719,25 +685,15 @@ public class XhtmlWriter extends Writer {
     }
 
 
-    // TODO move to PropertyUtil and remove current method for propertyDescriptors
     private Object getBeanPropertyValue(Object currentCallValue, String paramName) {
         if (currentCallValue == null) {
             return null;
         }
         try {
-            Object propertyValue = null;
-            BeanInfo info = Introspector.getBeanInfo(currentCallValue.getClass());
-            PropertyDescriptor[] pds = info.getPropertyDescriptors();
-            for (PropertyDescriptor pd : pds) {
-                if (paramName.equals(pd.getName())) {
-                    Method readMethod = pd.getReadMethod();
-                    if (readMethod != null) {
-                        propertyValue = readMethod.invoke(currentCallValue);
-                    }
-                    break;
-                }
-            }
-            return propertyValue;
+            PropertyAccessor propertyAccessor = ClassMetadata.forClass(currentCallValue.getClass())
+                    .getPropertyAccessor(paramName);
+            return propertyAccessor == null || !propertyAccessor.isReadable() ? null :
+                    propertyAccessor.getValue(currentCallValue);
         } catch (Exception e) {
             throw new RuntimeException("Failed to read property " + paramName + " from " + currentCallValue.toString
                     (), e);
@@ -745,14 +701,6 @@ public class XhtmlWriter extends Writer {
     }
 
 
-    private BeanInfo getBeanInfo(Class<?> beanType) {
-        try {
-            return Introspector.getBeanInfo(beanType);
-        } catch (IntrospectionException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private void appendInput(String requestParamName, ActionInputParameter actionInputParameter, Object value) throws
             IOException {
         if (actionInputParameter.isRequestBody()) { // recurseBeanProperties does that
@@ -787,8 +735,27 @@ public class XhtmlWriter extends Writer {
 
     }
 
+    private void appendInput(BeanFormTemplate.Field field, ActionInputParameter fieldInputParameter) throws
+            IOException {
+        Object value = fieldInputParameter.getCallValue();
+        beginDiv();
+        if (!field.hidden) {
+            String documentationUrl = documentationProvider.getDocumentationUrl(fieldInputParameter, value);
+            write(field.labelStart);
+            writeLabelContent(field.name, documentationUrl);
+        }
+        write(field.inputStart);
+        write(value == null ? "" : value.toString());
+        write(VALUE_TAG_CLOSE);
+        endDiv();
+    }
+
     private void writeLabelWithDoc(String label, String fieldName, String documentationUrl) throws IOException {
         beginLabel(OptionalAttributes.attr("for", fieldName));
+        writeLabelContent(label, documentationUrl);
+    }
+
+    private void writeLabelContent(String label, String documentationUrl) throws IOException {
         if (documentationUrl == null) {
             write(label);
         } else {
@@ -854,17 +821,17 @@ public class XhtmlWriter extends Writer {
         writeAttributes(attr);
         endTag();
         write(option);
-        write("</option>");
+        write(OPTION_END);
     }
 
     private void beginTag(String tag) throws IOException {
-        write("<");
+        write('<');
         write(tag);
 
     }
 
     private void endTag() throws IOException {
-        write(">");
+        write('>');
     }
 
     private void beginSelect(String name, String id, int size) throws IOException {
@@ -884,7 +851,7 @@ public class XhtmlWriter extends Writer {
     }
 
     private void endSelect() throws IOException {
-        write("</select>");
+        write(SELECT_END);
     }
 
     private void quote(String s) throws IOException {
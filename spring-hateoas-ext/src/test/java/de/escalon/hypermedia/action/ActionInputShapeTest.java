@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.action;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.format.annotation.NumberFormat;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ActionInputShapeTest {
+
+    enum Status {
+        OPEN, CLOSED
+    }
+
+    public void search(@RequestParam String name, @RequestParam Integer count, @RequestParam long offset,
+                       @RequestParam Status status, @RequestParam @NumberFormat(pattern = "#,##0") Integer total) {
+
+    }
+
+    private final DefaultFormattingConversionService conversionService = new DefaultFormattingConversionService();
+
+    @After
+    public void tearDown() {
+        ActionInputShape.setDefaultConversionService(null);
+    }
+
+    @Test
+    public void testFormatsPlainValuesLikeConversionService() throws Exception {
+        assertFormatsLikeConversionService(0, "foo");
+        assertFormatsLikeConversionService(1, 42);
+        assertFormatsLikeConversionService(2, 4711L);
+        assertFormatsLikeConversionService(3, Status.CLOSED);
+        assertNull(getShape(0).format(null));
+    }
+
+    @Test
+    public void testAppliesParameterFormatAnnotation() throws Exception {
+        assertEquals("12,345", getShape(4).format(12345));
+    }
+
+    @Test
+    public void testUsesDefaultConversionService() throws Exception {
+        DefaultFormattingConversionService custom = new DefaultFormattingConversionService();
+        custom.addConverter(new Converter<Integer, String>() {
+            @Override
+            public String convert(Integer source) {
+                return "#" + source;
+            }
+        });
+        ActionInputShape.setDefaultConversionService(custom);
+
+        assertEquals("#42", getShape(1).format(42));
+
+        ActionInputShape.setDefaultConversionService(null);
+        assertEquals("42", getShape(1).format(42));
+    }
+
+    @Test
+    public void testResolvesParameterNameWithoutChangingMethodParameter() throws Exception {
+        ActionInputShape shape = getShape(3);
+        assertEquals("status", shape.getParameterName());
+        assertNull(shape.getMethodParameter()
+                .getParameterName());
+    }
+
+    private void assertFormatsLikeConversionService(int parameterIndex, Object value) throws Exception {
+        ActionInputShape shape = getShape(parameterIndex);
+        MethodParameter methodParameter = shape.getMethodParameter();
+        Object expected = conversionService.convert(value, new TypeDescriptor(methodParameter),
+                TypeDescriptor.valueOf(String.class));
+        assertEquals(expected, shape.format(value));
+    }
+
+    private ActionInputShape getShape(int parameterIndex) throws Exception {
+        Method search = ActionInputShapeTest.class.getMethod("search", String.class, Integer.class, long.class,
+                Status.class, Integer.class);
+        return new ActionInputShape(new MethodParameter(search, parameterIndex), null);
+    }
+}
@@ -10,6 +10,7 @@
 
 package de.escalon.hypermedia.spring;
 
+import de.escalon.hypermedia.action.ActionInputParameter;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,6 +29,8 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
 
 public class AffordanceBuilderFactoryTest {
 
@@ -83,5 +86,72 @@ public class AffordanceBuilderFactoryTest {
         Assert.assertEquals("http://example.com/events", affordance.getHref());
     }
 
+    @Test
+    public void testLinkToSameMethodWithDifferentArguments() throws Exception {
+        final Affordance first = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("1"))
+                .build("foo");
+        final Affordance second = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("2"))
+                .build("foo");
+        Assert.assertEquals("http://example.com/events/1", first.getHref());
+        Assert.assertEquals("http://example.com/events/2", second.getHref());
+        Assert.assertEquals("1", first.getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId")
+                .getCallValue());
+        Assert.assertEquals("2", second.getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId")
+                .getCallValue());
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testLinksToSameMethodShareInputShape() throws Exception {
+        final ActionInputParameter first = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("1"))
+                .build("foo")
+                .getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId");
+        final ActionInputParameter second = factory.linkTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent("2"))
+                .build("foo")
+                .getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId");
+        Assert.assertSame(first.getShape(), second.getShape());
+        Assert.assertTrue(first.isPathVariable());
+        Assert.assertEquals("2", second.getCallValueFormatted());
+    }
+
+    @Test
+    public void testLinksToMethodForArgumentTuples() throws Exception {
+        final Method getEventMethod = ReflectionUtils.findMethod(EventControllerSample.class, "getEvent", String.class);
+        final List<AffordanceBuilder> builders = factory.linksTo(EventControllerSample.class, getEventMethod,
+                Arrays.asList(new Object[]{"1"}, new Object[]{"2"}));
+        Assert.assertEquals(2, builders.size());
+        Assert.assertEquals("http://example.com/events/1", builders.get(0)
+                .build("foo")
+                .getHref());
+        Assert.assertEquals("http://example.com/events/2", builders.get(1)
+                .build("foo")
+                .getHref());
+    }
+
+    @Test
+    public void testLinksToMethodInvocationForArgumentTuples() throws Exception {
+        final List<AffordanceBuilder> builders = factory.linksTo(AffordanceBuilder.methodOn(EventControllerSample.class)
+                .getEvent(null), Arrays.asList(new Object[]{"1"}, new Object[]{"2"}));
+        final Affordance first = builders.get(0)
+                .build("foo");
+        final Affordance second = builders.get(1)
+                .build("foo");
+        Assert.assertEquals("http://example.com/events/1", first.getHref());
+        Assert.assertEquals("http://example.com/events/2", second.getHref());
+        Assert.assertEquals("2", second.getActionDescriptors()
+                .get(0)
+                .getActionInputParameter("eventId")
+                .getCallValue());
+    }
+}
@@ -25,6 +25,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
@@ -222,4 +226,73 @@ public class AffordanceBuilderTest {
                 .build((String)null);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUsesForwardedHeaders() throws Exception {
+        request.addHeader("X-Forwarded-Host", "proxy.example.com:8443, other.example.com");
+        request.addHeader("X-Forwarded-Ssl", "on");
+        final Affordance affordance = AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyController.class)
+                .createThing(new Thing()))
+                .withSelfRel();
+        assertEquals("https://proxy.example.com:8443/things", affordance.getHref());
+    }
+
+    @Test
+    public void testResolvesBaseUriOncePerRequest() throws Exception {
+        final AtomicInteger resolved = new AtomicInteger();
+        AffordanceBuilder.setBaseUriResolver(new BaseUriResolver() {
+            @Override
+            public String resolveBaseUri(HttpServletRequest request) {
+                resolved.incrementAndGet();
+                return "http://api.example.com/v1";
+            }
+        });
+        try {
+            final Affordance first = AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyController.class)
+                    .createThing(new Thing()))
+                    .withSelfRel();
+            final Affordance second = AffordanceBuilder.linkTo(AffordanceBuilder.methodOn(DummyController.class)
+                    .updateThing(1, new Thing()))
+                    .withSelfRel();
+            assertEquals("http://api.example.com/v1/things", first.getHref());
+            assertEquals("http://api.example.com/v1/things/1", second.getHref());
+            assertEquals(1, resolved.get());
+        } finally {
+            AffordanceBuilder.setBaseUriResolver(null);
+        }
+    }
+
+    @Test
+    public void testResolvesBaseUriAgainAfterForward() throws Exception {
+        request.setServletPath("/api");
+        assertEquals("http://example.com/api", AffordanceBuilder.getBaseUri());
+
+        request.setAttribute(WebUtils.FORWARD_REQUEST_URI_ATTRIBUTE, "/api/things");
+        request.setServletPath("/views");
+        assertEquals("http://example.com/views", AffordanceBuilder.getBaseUri());
+
+        request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/fragments/thing");
+        request.setServletPath("/fragments");
+        assertEquals("http://example.com/fragments", AffordanceBuilder.getBaseUri());
+
+        request.removeAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+        request.setServletPath("/views");
+        assertEquals("http://example.com/views", AffordanceBuilder.getBaseUri());
+    }
+
+    @Test
+    public void testLinkHandle() throws Exception {
+        final LinkHandle updateThing = AffordanceBuilder.linkHandle(DummyController.class, "updateThing", int.class,
+                EventStatusType.class);
+        final Affordance affordance = updateThing.linkTo(1, EventStatusType.EVENT_CANCELLED)
+                .withSelfRel();
+        assertEquals("http://example.com/things/1/eventStatus?eventStatus=EVENT_CANCELLED", affordance.getHref());
+        assertEquals(RequestMethod.PUT, affordance.getActionDescriptors()
+                .get(0)
+                .getHttpMethod());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsLinkHandleForUnknownMethod() throws Exception {
+        AffordanceBuilder.linkHandle(DummyController.class, "updateThing", String.class);
+    }
+}
@@ -13,7 +13,12 @@ package de.escalon.hypermedia.spring;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.hateoas.Link;
 
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -83,4 +88,45 @@ public class AffordanceTest {
 
         Assert.assertEquals("http://localhost/things?id=101", affordance.expand(101).getHref());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWithRelKeepsHref() {
+        final Affordance affordance = new Affordance("http://localhost/things{?id}", "thing");
+        final Affordance self = affordance.withSelfRel();
+        Assert.assertEquals("http://localhost/things{?id}", self.getHref());
+        Assert.assertEquals("Link-Template: <http://localhost/things{?id}>; rel=\"thing self\"", self.toString());
+        Assert.assertEquals("Link-Template: <http://localhost/things{?id}>; rel=\"other\"",
+                self.withRel("other")
+                        .toString());
+    }
+
+    @Test
+    public void testEqualsLikeLink() {
+        final Affordance affordance = new Affordance("http://localhost/things/{id}", "thing");
+        final Link link = new Link("http://localhost/things/{id}");
+        Assert.assertEquals(link, affordance);
+        Assert.assertEquals(affordance, link);
+        Assert.assertEquals(link.hashCode(), affordance.hashCode());
+
+        final int hashCode = affordance.hashCode();
+        affordance.withRel("other");
+        Assert.assertEquals(hashCode, affordance.hashCode());
+    }
+
+    @Test
+    public void testExpandedAffordanceIsPlainLink() {
+        final Affordance affordance = new Affordance("http://localhost/things{/id}", "thing");
+        Assert.assertEquals("Link: <http://localhost/things/100>; rel=\"thing\"", affordance.expand(100)
+                .toString());
+    }
+
+    @Test
+    public void testMarshalsHrefWithJaxb() throws Exception {
+        Link affordance = new Affordance("http://localhost/things/{id}", "thing");
+        StringWriter xml = new StringWriter();
+        JAXBContext.newInstance(Link.class)
+                .createMarshaller()
+                .marshal(new JAXBElement<Link>(new QName("link"), Link.class, affordance), xml);
+        Assert.assertThat(xml.toString(), Matchers.containsString("href=\"http://localhost/things/{id}\""));
+    }
+}
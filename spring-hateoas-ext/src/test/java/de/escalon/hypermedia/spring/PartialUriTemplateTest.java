@@ -13,6 +13,7 @@ package de.escalon.hypermedia.spring;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -217,4 +218,24 @@ public class PartialUriTemplateTest {
         final UriTemplateComponents expanded = template.expand(val);
         Assert.assertEquals("http://example.com/events{/city}/concerts?eventName=Revo+Tour&foo=bar&location=Schlachthof&baz=Gnarf", expanded.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEmptyBracesAreNoVariable() throws Exception {
+        final PartialUriTemplate template = new PartialUriTemplate("http://example.com/{}/events{?eventName}");
+        Map<String, Object> val = new HashMap<String, Object>();
+        val.put("eventName", "Revo Tour");
+        final UriTemplateComponents expanded = template.expand(val);
+        Assert.assertEquals("http://example.com/{}/events?eventName=Revo+Tour", expanded.toString());
+        Assert.assertEquals(Arrays.asList("eventName"), template.getVariableNames());
+    }
+
+    @Test
+    public void testForTemplateReusesCompiledTemplate() throws Exception {
+        final PartialUriTemplate template = PartialUriTemplate.forTemplate("http://example.com/events{/city}");
+        Assert.assertSame(template, PartialUriTemplate.forTemplate("http://example.com/events{/city}"));
+        Map<String, Object> val = new HashMap<String, Object>();
+        val.put("city", "Wiesbaden");
+        Assert.assertEquals("http://example.com/events/Wiesbaden", template.expand(val)
+                .toString());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PercentEncoderTest {
+
+    @Test
+    public void testEncodesLikeUrlEncoder() throws Exception {
+        assertEncodesLikeUrlEncoder("");
+        assertEncodesLikeUrlEncoder("Tour");
+        assertEncodesLikeUrlEncoder("a b+c&d=e/f?g#h%i~j*k.l-m_n");
+        assertEncodesLikeUrlEncoder("Grüße, 東京");
+        assertEncodesLikeUrlEncoder("😀");
+        assertEncodesLikeUrlEncoder("lone \uD83D and \uDE00");
+    }
+
+    @Test
+    public void testEncodesRandomStringsLikeUrlEncoder() throws Exception {
+        Random random = new Random(4711);
+        char[] chars = new char[12];
+        for (int i = 0; i < 10000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                int kind = random.nextInt(4);
+                chars[j] = (char) (kind == 0 ? random.nextInt(128) : kind == 1 ? random.nextInt(0x800) :
+                        kind == 2 ? 0xD800 + random.nextInt(0x800) : random.nextInt(0x10000));
+            }
+            assertEncodesLikeUrlEncoder(new String(chars));
+        }
+    }
+
+    private static void assertEncodesLikeUrlEncoder(String value) throws Exception {
+        StringBuilder sb = new StringBuilder("x");
+        PercentEncoder.appendEncoded(sb, value);
+        assertEquals("x" + URLEncoder.encode(value, "UTF-8"), sb.toString());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring;
+
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class StreamingResourcesTest {
+
+    @Test
+    public void testIteratesOnlyOnce() {
+        StreamingResources<String> resources = new StreamingResources<String>(Arrays.asList("foo", "bar"),
+                new Link("http://example.com/items"));
+        Iterator<String> items = resources.iterator();
+        assertEquals("foo", items.next());
+        try {
+            resources.iterator();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // content is gone
+        }
+        assertEquals("http://example.com/items", resources.getLink(Link.REL_SELF)
+                .getHref());
+    }
+
+    @Test
+    public void testReadsContentForNonStreamingConsumers() {
+        StreamingResources<String> resources = new StreamingResources<String>(Arrays.asList("foo", "bar")
+                .iterator());
+        assertEquals(Arrays.asList("foo", "bar"), resources.getContent());
+        assertEquals(Arrays.asList("foo", "bar"), resources.getContent());
+        assertEquals("foo", resources.iterator()
+                .next());
+    }
+
+    @Test
+    public void testClosesSourceWhenReadByJacksonConverter() throws Exception {
+        CloseableIterator<String> source = new CloseableIterator<String>(Arrays.asList("foo", "bar")
+                .iterator());
+        StreamingResources<String> resources = new StreamingResources<String>(source);
+
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new MappingJackson2HttpMessageConverter().write(resources, MediaType.APPLICATION_JSON, outputMessage);
+
+        assertTrue(outputMessage.getBodyAsString()
+                .contains("[\"foo\",\"bar\"]"));
+        assertTrue(source.closed);
+    }
+
+    static class CloseableIterator<T> implements Iterator<T>, Closeable {
+
+        private final Iterator<T> delegate;
+        boolean closed;
+
+        CloseableIterator(Iterator<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return delegate.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
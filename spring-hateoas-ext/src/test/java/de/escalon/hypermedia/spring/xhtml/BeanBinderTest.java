@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BeanBinderTest {
+
+    enum Status {
+        OPEN, CLOSED
+    }
+
+    public static class Rating {
+        private final int ratingValue;
+
+        @JsonCreator
+        public Rating(@JsonProperty("ratingValue") int ratingValue) {
+            this.ratingValue = ratingValue;
+        }
+    }
+
+    public static class Review {
+        private final String reviewBody;
+        private final Rating rating;
+
+        @JsonCreator
+        public Review(@JsonProperty("reviewBody") String reviewBody, @JsonProperty("rating") Rating rating) {
+            this.reviewBody = reviewBody;
+            this.rating = rating;
+        }
+    }
+
+    public static class Event {
+        private final String name;
+        private final List<String> tags;
+        private final int[] seats;
+        private Status status;
+        private Set<Status> history;
+        private List<Review> reviews;
+        private Event parent;
+
+        @JsonCreator
+        public Event(@JsonProperty("name") String name, @JsonProperty("tags") List<String> tags,
+                     @JsonProperty("seats") int[] seats) {
+            this.name = name;
+            this.tags = tags;
+            this.seats = seats;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public void setHistory(Set<Status> history) {
+            this.history = history;
+        }
+
+        public void setReviews(List<Review> reviews) {
+            this.reviews = reviews;
+        }
+
+        public void setParent(Event parent) {
+            this.parent = parent;
+        }
+
+        public void setAttributes(Map<String, String> attributes) {
+            fail("maps are not bound");
+        }
+    }
+
+    public static class Venue {
+        private String name;
+
+        @JsonCreator
+        public Venue(@JsonProperty("name") String name) {
+            this.name = name;
+        }
+
+        public void setName(String name) {
+            fail("name is bound by the constructor");
+        }
+    }
+
+    @Test
+    public void testCompilesBinderOnce() {
+        assertSame(BeanBinder.forClass(Event.class), BeanBinder.forClass(Event.class));
+    }
+
+    @Test
+    public void testBindsConstructorArgumentsAndSetters() {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>();
+        formValues.add("name", "Walk off the Earth");
+        formValues.add("tags", "music");
+        formValues.add("tags", "live");
+        formValues.add("seats", "4");
+        formValues.add("seats", "2");
+        formValues.add("status", "CLOSED");
+        formValues.add("history", "OPEN");
+        formValues.add("history", "CLOSED");
+        formValues.add("attributes", "ignored");
+
+        Event event = (Event) BeanBinder.forClass(Event.class)
+                .bind(formValues);
+
+        assertEquals("Walk off the Earth", event.name);
+        assertEquals(Arrays.asList("music", "live"), event.tags);
+        assertArrayEquals(new int[]{4, 2}, event.seats);
+        assertEquals(Status.CLOSED, event.status);
+        assertEquals(EnumSet.allOf(Status.class), event.history);
+        assertNull(event.reviews);
+        assertNull("a bean cannot be bound into itself", event.parent);
+    }
+
+    @Test
+    public void testBindsNestedBeansAndCollectionsOfBeans() {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>();
+        formValues.add("name", "Tour");
+        formValues.add("reviewBody", "great");
+        formValues.add("ratingValue", "5");
+        formValues.add("reviewBody", "meh");
+        formValues.add("ratingValue", "3");
+
+        Event event = (Event) BeanBinder.forClass(Event.class)
+                .bind(formValues);
+
+        assertNull(event.tags);
+        assertNull(event.seats);
+        assertEquals(2, event.reviews.size());
+        assertEquals("great", event.reviews.get(0).reviewBody);
+        assertEquals(5, event.reviews.get(0).rating.ratingValue);
+        assertEquals("meh", event.reviews.get(1).reviewBody);
+        assertEquals(3, event.reviews.get(1).rating.ratingValue);
+    }
+
+    @Test
+    public void testDoesNotSetPropertyBoundByConstructor() {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>();
+        formValues.add("name", "Schlachthof");
+
+        Venue venue = (Venue) BeanBinder.forClass(Venue.class)
+                .bind(formValues);
+
+        assertEquals("Schlachthof", venue.name);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMultipleValuesForSingleValue() {
+        MultiValueMap<String, String> formValues = new LinkedMultiValueMap<String, String>();
+        formValues.add("name", "foo");
+        formValues.add("name", "bar");
+        BeanBinder.forClass(Event.class)
+                .bind(formValues);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMap() {
+        BeanBinder.forClass(HashMap.class);
+    }
+}
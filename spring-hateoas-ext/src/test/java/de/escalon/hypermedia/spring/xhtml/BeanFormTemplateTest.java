@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.escalon.hypermedia.action.Input;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BeanFormTemplateTest {
+
+    enum Status {
+        OPEN, CLOSED
+    }
+
+    public static class Rating {
+        private int value;
+
+        @JsonCreator
+        public Rating(@JsonProperty("value") @Input(min = 1, max = 5) int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+
+    public static class Review {
+        private String body;
+        private Status status;
+        private Rating rating;
+
+        @JsonCreator
+        public Review(@JsonProperty("body") String body, @JsonProperty("status") Status status,
+                      @JsonProperty("rating") Rating rating) {
+            this.body = body;
+            this.status = status;
+            this.rating = rating;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Rating getRating() {
+            return rating;
+        }
+
+        public void setRating(Rating rating) {
+            this.rating = rating;
+        }
+    }
+
+    public static class NoCreator {
+        public NoCreator(String value) {
+        }
+    }
+
+    public static class PartiallyAnnotatedCreator {
+        @JsonCreator
+        public PartiallyAnnotatedCreator(String name, @JsonProperty("value") int value) {
+        }
+    }
+
+    @Test
+    public void testCompilesConstructorFormOnce() {
+        BeanFormTemplate template = BeanFormTemplate.forBeanType(Review.class, true);
+        assertSame(template, BeanFormTemplate.forBeanType(Review.class, true));
+        assertTrue(template.constructorBased);
+        assertEquals(3, template.fields.size());
+
+        BeanFormTemplate.Field body = template.fields.get(0);
+        assertEquals("body", body.name);
+        assertTrue(body.singleValue);
+        assertEquals(0, body.possibleValues.length);
+        assertEquals("<label for=\"body\">", body.labelStart.text);
+        assertEquals("<input name=\"body\" type=\"text\"  value=\"", body.inputStart.text);
+
+        BeanFormTemplate.Field status = template.fields.get(1);
+        assertArrayEquals(Status.values(), status.possibleValues);
+
+        BeanFormTemplate.Field rating = template.fields.get(2);
+        assertFalse(rating.singleValue);
+        assertEquals("rating:", rating.caption.text);
+    }
+
+    @Test
+    public void testPreparesInputConstraints() {
+        BeanFormTemplate.Field value = BeanFormTemplate.forBeanType(Rating.class, true).fields.get(0);
+        assertTrue(value.inputStart.text, value.inputStart.text.startsWith("<input name=\"value\" type=\"number\" "));
+        assertTrue(value.inputStart.text, value.inputStart.text.contains(" min=\"1\""));
+        assertTrue(value.inputStart.text, value.inputStart.text.contains(" max=\"5\""));
+        assertTrue(value.inputStart.text, value.inputStart.text.endsWith(" value=\""));
+    }
+
+    @Test
+    public void testCompilesSetterFormForWritableProperties() {
+        BeanFormTemplate template = BeanFormTemplate.forBeanType(Review.class, false);
+        assertNotSame(BeanFormTemplate.forBeanType(Review.class, true), template);
+        assertFalse(template.constructorBased);
+        assertEquals(1, template.fields.size());
+        assertEquals("rating", template.fields.get(0).name);
+        assertNotNull(template.fields.get(0).propertyDescriptor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsConstructorFormWithoutCreator() {
+        BeanFormTemplate.forBeanType(NoCreator.class, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsCreatorWithUnannotatedArgument() {
+        BeanFormTemplate.forBeanType(PartiallyAnnotatedCreator.class, true);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import org.junit.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class FormDecoderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testDecodesLikeUrlDecoder() throws Exception {
+        assertDecodesLikeUrlDecoder("");
+        assertDecodesLikeUrlDecoder("name=Walk+off+the+Earth&location=Wiesbaden");
+        assertDecodesLikeUrlDecoder("tag=a&tag=b&tag=");
+        assertDecodesLikeUrlDecoder("flag&&empty=& trimmed=value \n");
+        assertDecodesLikeUrlDecoder("a%3Db=c%26d&e=f=g");
+        assertDecodesLikeUrlDecoder("greeting=" + URLEncoder.encode("Grüße aus 東京 😀", "UTF-8"));
+    }
+
+    @Test
+    public void testDecodesRawNonAsciiBytes() {
+        MultiValueMap<String, String> formValues = FormDecoder.decode("city=Zürich".getBytes(UTF_8), UTF_8);
+        assertEquals("Zürich", formValues.getFirst("city"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsIncompleteEscape() {
+        FormDecoder.decode("name=foo%4".getBytes(UTF_8), UTF_8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsIllegalEscape() {
+        FormDecoder.decode("name=foo%zz".getBytes(UTF_8), UTF_8);
+    }
+
+    @Test
+    public void testCollectsParameterMap() {
+        Map<String, String[]> parameterMap = new LinkedHashMap<String, String[]>();
+        parameterMap.put("name", new String[]{"Walk off the Earth"});
+        parameterMap.put("tag", new String[]{"a", "b"});
+        MultiValueMap<String, String> formValues = FormDecoder.fromParameterMap(parameterMap);
+        assertEquals(Arrays.asList("Walk off the Earth"), formValues.get("name"));
+        assertEquals(Arrays.asList("a", "b"), formValues.get("tag"));
+    }
+
+    private static void assertDecodesLikeUrlDecoder(String body) throws Exception {
+        MultiValueMap<String, String> expected = new LinkedMultiValueMap<String, String>();
+        for (String pair : StringUtils.tokenizeToStringArray(body, "&")) {
+            int idx = pair.indexOf('=');
+            if (idx == -1) {
+                expected.add(URLDecoder.decode(pair, "UTF-8"), null);
+            } else {
+                expected.add(URLDecoder.decode(pair.substring(0, idx), "UTF-8"),
+                        URLDecoder.decode(pair.substring(idx + 1), "UTF-8"));
+            }
+        }
+        assertEquals(expected, FormDecoder.decode(body.getBytes(UTF_8), UTF_8));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015. Escalon System-Entwicklung, Dietrich Schulten
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+
+package de.escalon.hypermedia.spring.xhtml;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Utf8OutputWriterTest {
+
+    @Test
+    public void testEncodesLikeStringGetBytes() throws Exception {
+        assertEncodesLikeGetBytes("<li class=\"list-group-item\">Grüße, 東京 😀</li>", 8192);
+        assertEncodesLikeGetBytes("lone \uD83D and \uDE00 surrogates \uD83D", 8192);
+    }
+
+    @Test
+    public void testEncodesRandomStringsWithSmallBuffer() throws Exception {
+        Random random = new Random(4711);
+        char[] chars = new char[40];
+        for (int i = 0; i < 2000; i++) {
+            for (int j = 0; j < chars.length; j++) {
+                int kind = random.nextInt(4);
+                chars[j] = (char) (kind == 0 ? random.nextInt(128) : kind == 1 ? random.nextInt(0x800) :
+                        kind == 2 ? 0xD800 + random.nextInt(0x800) : random.nextInt(0x10000));
+            }
+            assertEncodesLikeGetBytes(new String(chars), 4 + random.nextInt(16));
+        }
+    }
+
+    @Test
+    public void testWritesBufferedOnlyOnFlush() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8OutputWriter writer = new Utf8OutputWriter(bytes, 16);
+        writer.write("<dl>".getBytes(Utf8OutputWriter.UTF_8));
+        writer.write("foo");
+        assertEquals(0, bytes.size());
+        writer.write("<dt>bar</dt><dd>baz</dd>".getBytes(Utf8OutputWriter.UTF_8));
+        writer.write('!');
+        writer.flush();
+        assertEquals("<dl>foo<dt>bar</dt><dd>baz</dd>!", bytes.toString("UTF-8"));
+    }
+
+    private static void assertEncodesLikeGetBytes(String value, int bufferSize) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Utf8OutputWriter writer = new Utf8OutputWriter(bytes, bufferSize);
+        // split writes, so that surrogate pairs may span two writes
+        int split = value.length() / 2;
+        writer.write(value, 0, split);
+        writer.write(value.toCharArray(), split, value.length() - split);
+        writer.close();
+        assertArrayEquals(value, value.getBytes("UTF-8"), bytes.toByteArray());
+    }
+}
@@ -1,6 +1,7 @@
 package de.escalon.hypermedia.spring.xhtml;
 
 import de.escalon.hypermedia.action.Select;
+import de.escalon.hypermedia.spring.StreamingResources;
 import de.escalon.hypermedia.spring.sample.test.DummyEventController;
 import de.escalon.hypermedia.spring.sample.test.ReviewController;
 import org.junit.Before;
@@ -12,8 +13,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -26,10 +30,12 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.Closeable;
+import java.nio.charset.Charset;
+import java.util.*;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
@@ -42,6 +48,8 @@ public class XhtmlResourceMessageConverterTest {
 
     public static final Logger LOG = LoggerFactory.getLogger(XhtmlResourceMessageConverterTest.class);
 
+    private static final MediaType TEXT_HTML_UTF_8 = MediaType.parseMediaType("text/html;charset=UTF-8");
+
     @Autowired
     private WebApplicationContext wac;
 
@@ -94,7 +102,7 @@ public class XhtmlResourceMessageConverterTest {
     public void testCreatesHtmlFormForGet() throws Exception {
         MvcResult result = this.mockMvc.perform(get("http://localhost/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_HTML))
+                .andExpect(content().contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:form[@action='http://localhost/events' and @method='GET']", namespaces).exists())
                         // TODO: form name
                 .andExpect(xpath("//h:form[@action='http://localhost/events' and @method='GET']/h:input/@name",
@@ -108,7 +116,7 @@ public class XhtmlResourceMessageConverterTest {
     public void testCreatesHtmlFormForPost() throws Exception {
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_HTML))
+                .andExpect(content().contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:form[@name='addEvent']/@action", namespaces).string("http://localhost/events"))
                 .andExpect(xpath("//h:form[@name='addEvent']/@method", namespaces).string("POST"))
                 .andExpect(xpath("//h:form[@name='addEvent']/h:div/h:select[@name='eventStatus']", namespaces).exists())
@@ -126,7 +134,7 @@ public class XhtmlResourceMessageConverterTest {
         // TODO GET iritemplate form has no name
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_HTML))
+                .andExpect(content().contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:form[@name='updateEventWithRequestBody']/@action", namespaces).string("http://localhost/events/1"))
                 .andExpect(xpath("//h:form[@name='updateEventWithRequestBody']/h:input[@name='_method']/@value", namespaces).string("PUT"))
                 .andReturn();
@@ -141,7 +149,7 @@ public class XhtmlResourceMessageConverterTest {
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content()
-                        .contentType(MediaType.TEXT_HTML))
+                        .contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:input[@name='ratingValue']", namespaces).exists())
                 .andExpect(xpath("//h:input[@name='ratingValue']/@type", namespaces).string("number"))
                 .andExpect(xpath("//h:input[@name='ratingValue']/@min", namespaces).string("1"))
@@ -158,7 +166,7 @@ public class XhtmlResourceMessageConverterTest {
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content()
-                        .contentType(MediaType.TEXT_HTML))
+                        .contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:input[@name='ratingValue']/@value", namespaces).string("3"))
                 .andReturn();
         LOG.debug(result.getResponse()
@@ -177,7 +185,7 @@ public class XhtmlResourceMessageConverterTest {
         this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content()
-                        .contentType(MediaType.TEXT_HTML))
+                        .contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:input[@name='personId']", namespaces).exists())
                 .andExpect(xpath("//h:input[@name='personId']/@type", namespaces).string("hidden"))
                 .andExpect(xpath("//h:input[@name='personId']/@value", namespaces).string("123"))
@@ -194,7 +202,7 @@ public class XhtmlResourceMessageConverterTest {
 
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_HTML))
+                .andExpect(content().contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:select[@name='eventStatus']", namespaces).exists())
                 .andExpect(xpath("//h:select[@name='eventStatus']/h:option[1]/text()", namespaces).string("EVENT_CANCELLED"))
                 .andExpect(xpath("//h:select[@name='eventStatus']/h:option[2]/text()", namespaces).string("EVENT_POSTPONED"))
@@ -216,7 +224,7 @@ public class XhtmlResourceMessageConverterTest {
     public void testCreatesSelectFieldForSelectOptionsBasedPossibleValues() throws Exception {
         MvcResult result = this.mockMvc.perform(get("/events").accept(MediaType.TEXT_HTML))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_HTML))
+                .andExpect(content().contentType(TEXT_HTML_UTF_8))
                 .andExpect(xpath("//h:form[@name='updateEventWithRequestBody']/h:div/h:select[@name='typicalAgeRange']", namespaces).exists())
                 .andExpect(xpath("//h:form[@name='updateEventWithRequestBody']/h:div/h:select[@name='typicalAgeRange']/h:option[1]", namespaces).string("7-10"))
                 .andExpect(xpath("//h:form[@name='updateEventWithRequestBody']/h:div/h:select[@name='typicalAgeRange']/h:option[2]", namespaces).string("11-"))
@@ -226,6 +234,66 @@ public class XhtmlResourceMessageConverterTest {
     }
 
 
+    @Test
+    public void testRendersStreamingResourcesLikeResources() throws Exception {
+        List<String> items = Arrays.asList("foo", "bar");
+        Link self = new Link("http://localhost/items");
+        XhtmlResourceMessageConverter converter = new XhtmlResourceMessageConverter();
+
+        MockHttpOutputMessage expected = new MockHttpOutputMessage();
+        converter.write(new Resources<String>(items, self), MediaType.TEXT_HTML, expected);
+
+        final boolean[] closed = new boolean[1];
+        class CursorIterator implements Iterator<String>, Closeable {
+            final Iterator<String> delegate = Arrays.asList("foo", "bar")
+                    .iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return delegate.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        }
+        MockHttpOutputMessage streamed = new MockHttpOutputMessage();
+        converter.write(new StreamingResources<String>(new CursorIterator(), self), MediaType.TEXT_HTML, streamed);
+
+        assertEquals(expected.getBodyAsString(), streamed.getBodyAsString());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void testWritesUtf8WithCharset() throws Exception {
+        XhtmlResourceMessageConverter converter = new XhtmlResourceMessageConverter();
+        Map<String, String> greeting = Collections.singletonMap("greeting", "Grüße aus 東京");
+
+        MockHttpOutputMessage negotiated = new MockHttpOutputMessage();
+        converter.write(greeting, MediaType.TEXT_HTML, negotiated);
+        assertEquals(TEXT_HTML_UTF_8, negotiated.getHeaders()
+                .getContentType());
+        assertTrue(negotiated.getBodyAsString(Charset.forName("UTF-8"))
+                .contains("Grüße aus 東京"));
+
+        MockHttpOutputMessage defaulted = new MockHttpOutputMessage();
+        converter.write(greeting, null, defaulted);
+        assertEquals(TEXT_HTML_UTF_8, defaulted.getHeaders()
+                .getContentType());
+    }
+
+
     /**
      * Tests if the form contains a multiselect field with three preselected items, matching the person having id 123.
      *